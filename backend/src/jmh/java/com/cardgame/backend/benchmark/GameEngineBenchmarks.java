@@ -0,0 +1,110 @@
+package com.cardgame.backend.benchmark;
+
+import com.cardgame.backend.engine.Cards;
+import com.cardgame.backend.engine.GameRules;
+import com.cardgame.backend.model.GameState;
+import com.cardgame.backend.model.ProbabilityInfo;
+import com.cardgame.backend.service.GameService;
+import com.cardgame.backend.store.InMemoryGameStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request work of a game: dealing, guessing, drawing, probabilities and writing the
+ * game out as JSON. Each thread plays its own games against an in-memory store, as requests do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class GameEngineBenchmarks {
+
+	private static final String OWNER = "bench";
+
+	@Param({"6", "10"})
+	private int numDecks;
+
+	private GameService gameService;
+	private ObjectMapper objectMapper;
+	private SplittableRandom random;
+	private GameState game;
+	private GameState midGame;
+
+	@Setup
+	public void setUp() throws Exception {
+		gameService = new GameService(new InMemoryGameStore(30, 10_000));
+		// Built the way Spring Boot builds the application's ObjectMapper
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		random = new SplittableRandom(42);
+		game = gameService.startNewGame(OWNER, numDecks, 3);
+
+		// A game a few guesses in, so the JSON has history and a result to describe
+		midGame = gameService.startNewGame(OWNER, numDecks, 3);
+		for (int i = 0; i < 5 && !midGame.isGameOver(); i++) {
+			guess(midGame);
+		}
+		objectMapper.writeValueAsBytes(midGame);
+	}
+
+	@Benchmark
+	public GameState startNewGame() {
+		return gameService.startNewGame(OWNER, numDecks, 3);
+	}
+
+	/** One guess; finished games are replaced, which costs one deal per game's worth of guesses. */
+	@Benchmark
+	public GameState processGuess() {
+		if (game.isGameOver()) {
+			game = gameService.startNewGame(OWNER, numDecks, 3);
+		}
+		return guess(game);
+	}
+
+	@Benchmark
+	public ProbabilityInfo calculateProbability() {
+		return gameService.calculateProbability(midGame.getGameId(), OWNER, random.nextInt(numDecks));
+	}
+
+	/** Deals a game from a seed and draws the rest of its deck, card by card. */
+	@Benchmark
+	public void drawWholeDeck(Blackhole blackhole) {
+		GameState dealt = GameRules.newGame(numDecks, random.nextLong());
+		int card;
+		while ((card = dealt.drawNextCard()) != Cards.NONE) {
+			blackhole.consume(card);
+		}
+	}
+
+	@Benchmark
+	public byte[] serializeGameState() throws Exception {
+		return objectMapper.writeValueAsBytes(midGame);
+	}
+
+	// Guesses on the first live pile in the direction with more cards left
+	private GameState guess(GameState state) {
+		int pile = 0;
+		while (state.getPileTop(pile) == Cards.NONE) {
+			pile++;
+		}
+		int rank = Cards.rank(state.getPileTop(pile));
+		String direction = state.countAbove(rank) >= state.countBelow(rank) ? "high" : "low";
+		return gameService.processGuess(state.getGameId(), OWNER, pile + 1, direction);
+	}
+}
@@ -55,11 +55,13 @@ public class SecurityConfig {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
-                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED))
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         // Public endpoints
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/game/health").permitAll()
+                        // WebSocket handshake authenticates the JWT itself (JwtHandshakeInterceptor)
+                        .requestMatchers("/api/game/ws").permitAll()
                         .requestMatchers("/h2-console/**").permitAll()
                         // Game endpoints - require authentication
                         .requestMatchers("/api/game/**").authenticated()
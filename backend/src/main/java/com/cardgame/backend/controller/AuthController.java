@@ -1,6 +1,7 @@
 package com.cardgame.backend.controller;
 
 import com.cardgame.backend.dto.*;
+import com.cardgame.backend.leaderboard.LeaderboardIndex;
 import com.cardgame.backend.model.AuthProvider;
 import com.cardgame.backend.model.PasswordResetToken;
 import com.cardgame.backend.model.User;
@@ -8,6 +9,7 @@ import com.cardgame.backend.repository.PasswordResetTokenRepository;
 import com.cardgame.backend.repository.UserRepository;
 import com.cardgame.backend.security.JwtUtils;
 import com.cardgame.backend.security.UserDetailsImpl;
+import com.cardgame.backend.security.VerifiedTokenCache;
 import com.cardgame.backend.service.EmailService;
 import com.cardgame.backend.service.EmailService.*;
 
@@ -47,6 +49,12 @@ public class AuthController {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
@@ -86,6 +94,7 @@ public class AuthController {
 
         user.setProvider(AuthProvider.LOCAL);
         userRepository.save(user);
+        leaderboardIndex.update(user);
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
@@ -176,10 +185,10 @@ public class AuthController {
             return ResponseEntity.badRequest().body(new MessageResponse("Reset token has already been used!"));
         }
 
-        // Update password
+        // Update password; only that column, so a game saved meanwhile is not written over
         User user = resetToken.getUser();
-        user.setPassword(encoder.encode(request.getNewPassword()));
-        userRepository.save(user);
+        userRepository.updatePassword(user.getId(), encoder.encode(request.getNewPassword()));
+        tokenCache.evictUser(user.getUsername());
 
         // Mark token as used
         resetToken.setUsed(true);
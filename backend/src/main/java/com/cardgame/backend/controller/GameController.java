@@ -1,22 +1,28 @@
 package com.cardgame.backend.controller;
 
+import com.cardgame.backend.dto.GuessBatchRequest;
 import com.cardgame.backend.model.GameState;
 import com.cardgame.backend.model.GuessRequest;
 import com.cardgame.backend.model.ProbabilityInfo;
+import com.cardgame.backend.service.GameResult;
+import com.cardgame.backend.service.GameSaveQueue;
 import com.cardgame.backend.service.GameService;
+import com.cardgame.backend.solver.ExpectimaxSolver;
+import com.cardgame.backend.solver.HintService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import com.cardgame.backend.model.GameHistory;
 import com.cardgame.backend.model.User;
-import com.cardgame.backend.repository.GameHistoryRepository;
 import com.cardgame.backend.repository.UserRepository;
 import com.cardgame.backend.security.UserDetailsImpl;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -27,6 +33,12 @@ import java.util.Map;
 )
 public class GameController {
 
+    // Identifies the game a request acts on; returned as gameId by /start
+    private static final String GAME_ID_HEADER = "X-Game-Id";
+
+    // A game never has more guesses than cards in the deck
+    private static final int MAX_BATCH_MOVES = 52;
+
     @Autowired
     private GameService gameService;
 
@@ -34,13 +46,17 @@ public class GameController {
     private UserRepository userRepository;
 
     @Autowired
-    private GameHistoryRepository gameHistoryRepository;
+    private GameSaveQueue gameSaveQueue;
+
+    @Autowired
+    private HintService hintService;
 
     @PostMapping("/start")
     public ResponseEntity<GameState> startGame(@RequestBody Map<String, Integer> request) {
         try {
             int numDecks = request.get("numDecks");
-            GameState gameState = gameService.startNewGame(numDecks);
+            // The streak cannot change until this game is saved, so look it up once here
+            GameState gameState = gameService.startNewGame(currentUsername(), numDecks, currentWinStreak());
             return ResponseEntity.ok(gameState);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -48,44 +64,77 @@ public class GameController {
     }
 
     // ✅ NEW: Process guess with win streak multiplier
+    /**
+     * POST /api/game/guess
+     * With ?compact=true only the changes are returned (see GuessDelta), and
+     * &withProbabilities=true adds the updated probabilities to that compact answer.
+     */
     @PostMapping("/guess")
-    public ResponseEntity<Map<String, Object>> makeGuess(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<?> makeGuess(@RequestHeader(value = GAME_ID_HEADER, required = false) String gameId,
+                                       @RequestParam(defaultValue = "false") boolean compact,
+                                       @RequestParam(defaultValue = "false") boolean withProbabilities,
+                                       @RequestBody Map<String, Object> request) {
         try {
             int deckNumber = ((Number) request.get("deckNumber")).intValue();
             String guess = (String) request.get("guess");
 
-            // ✅ Get user's current win streak
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            int winStreak = 0;
-
-            if (authentication != null && authentication.isAuthenticated()) {
-                try {
-                    UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-                    User user = userRepository.findByUsername(userDetails.getUsername()).orElse(null);
-                    if (user != null && user.getCurrentWinStreak() != null) {
-                        winStreak = user.getCurrentWinStreak();
-                    }
-                } catch (Exception e) {
-                    // Guest or error - use 0 streak
-                }
+            if (compact) {
+                return ResponseEntity.ok(gameService.processGuessCompact(
+                        gameId, currentUsername(), deckNumber, guess, withProbabilities));
             }
 
-            GameState gameState = gameService.processGuess(deckNumber, guess, winStreak);
+            GameState gameState = gameService.processGuess(gameId, currentUsername(), deckNumber, guess);
 
             // ✅ Return game state with streak info
             Map<String, Object> response = new HashMap<>();
             response.put("gameState", gameState);
-            response.put("currentWinStreak", winStreak);
+            response.put("currentWinStreak", gameState.getWinStreak());
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (OptimisticLockingFailureException e) {
+            // Another request moved this game first; the client should refresh its state
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Applies an ordered list of guesses in one request, with a single game store round trip;
+     * the streak comes from the game. Stops early if the game ends.
+     * POST /api/game/guesses  { "moves": [{ "deckNumber": 1, "guess": "h" }, ...], "finalOnly": false }
+     */
+    @PostMapping("/guesses")
+    public ResponseEntity<Map<String, Object>> makeGuesses(@RequestHeader(value = GAME_ID_HEADER, required = false) String gameId,
+                                                           @RequestBody GuessBatchRequest request) {
+        if (request.getMoves() == null || request.getMoves().isEmpty()
+                || request.getMoves().size() > MAX_BATCH_MOVES) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            List<GameState> states = gameService.processGuesses(
+                    gameId, currentUsername(), request.getMoves(), !request.isFinalOnly());
+            GameState finalState = states.get(states.size() - 1);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("gameState", finalState);
+            if (!request.isFinalOnly()) {
+                response.put("states", states);
+            }
+            response.put("currentWinStreak", finalState.getWinStreak());
 
             return ResponseEntity.ok(response);
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
 
     @GetMapping("/state")
-    public ResponseEntity<GameState> getGameState() {
-        GameState gameState = gameService.getCurrentGame();
+    public ResponseEntity<GameState> getGameState(@RequestHeader(value = GAME_ID_HEADER, required = false) String gameId) {
+        GameState gameState = gameService.getGame(gameId, currentUsername());
         if (gameState == null) {
             return ResponseEntity.notFound().build();
         }
@@ -93,9 +142,10 @@ public class GameController {
     }
 
     @GetMapping("/probability/{deckIndex}")
-    public ResponseEntity<ProbabilityInfo> getProbability(@PathVariable int deckIndex) {
+    public ResponseEntity<ProbabilityInfo> getProbability(@RequestHeader(value = GAME_ID_HEADER, required = false) String gameId,
+                                                          @PathVariable int deckIndex) {
         try {
-            ProbabilityInfo probability = gameService.calculateProbability(deckIndex);
+            ProbabilityInfo probability = gameService.calculateProbability(gameId, currentUsername(), deckIndex);
             return ResponseEntity.ok(probability);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -103,24 +153,44 @@ public class GameController {
     }
 
     @GetMapping("/probabilities")
-    public ResponseEntity<Map<Integer, ProbabilityInfo>> getAllProbabilities() {
-        GameState gameState = gameService.getCurrentGame();
-        if (gameState == null) {
+    public ResponseEntity<Map<Integer, ProbabilityInfo>> getAllProbabilities(
+            @RequestHeader(value = GAME_ID_HEADER, required = false) String gameId) {
+        Map<Integer, ProbabilityInfo> probabilities = gameService.calculateAllProbabilities(gameId, currentUsername());
+        if (probabilities == null) {
             return ResponseEntity.notFound().build();
         }
 
-        Map<Integer, ProbabilityInfo> probabilities = new HashMap<>();
-        for (int i = 0; i < gameState.getDeckValues().size(); i++) {
-            ProbabilityInfo prob = gameService.calculateProbability(i);
-            probabilities.put(i, prob);
+        return ResponseEntity.ok(probabilities);
+    }
+
+    /**
+     * Best pile and guess for the current position, by expected final score
+     * GET /api/game/hint
+     */
+    @GetMapping("/hint")
+    public ResponseEntity<?> getHint(@RequestHeader(value = GAME_ID_HEADER, required = false) String gameId) {
+        GameState game = gameService.getGame(gameId, currentUsername());
+        if (game == null) {
+            return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(probabilities);
+        ExpectimaxSolver.Hint hint = hintService.hint(game);
+        if (hint == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Game is over"));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("deckNumber", hint.deckNumber());
+        response.put("guess", hint.high() ? "high" : "low");
+        response.put("probabilityCorrect", Math.round(hint.probabilityCorrect() * 1000.0) / 1000.0);
+        response.put("expectedScore", Math.round(hint.expectedScore() * 10.0) / 10.0);
+        response.put("exact", hint.exact());
+        return ResponseEntity.ok(response);
     }
 
     @PostMapping("/reset")
-    public ResponseEntity<Void> resetGame() {
-        gameService.resetGame();
+    public ResponseEntity<Void> resetGame(@RequestHeader(value = GAME_ID_HEADER, required = false) String gameId) {
+        gameService.resetGame(gameId, currentUsername());
         return ResponseEntity.ok().build();
     }
 
@@ -129,11 +199,15 @@ public class GameController {
         Map<String, String> response = new HashMap<>();
         response.put("status", "OK");
         response.put("message", "Card Game API is running");
+        response.put("saveQueueDepth", String.valueOf(gameSaveQueue.depth()));
+        response.put("saveRetrying", String.valueOf(gameSaveQueue.retryingCount()));
+        response.put("saveFailures", String.valueOf(gameSaveQueue.failedCount()));
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/save")
-    public ResponseEntity<?> saveGameResult(@RequestBody Map<String, Object> gameResult) {
+    public ResponseEntity<?> saveGameResult(@RequestHeader(value = GAME_ID_HEADER, required = false) String gameId,
+                                            @RequestBody Map<String, Object> gameResult) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             if (authentication == null || !authentication.isAuthenticated()) {
@@ -141,40 +215,32 @@ public class GameController {
             }
 
             UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-            User user = userRepository.findByUsername(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            String username = userDetails.getUsername();
 
             int score = ((Number) gameResult.get("score")).intValue();
             int numDecks = ((Number) gameResult.get("numDecks")).intValue();
             boolean won = (Boolean) gameResult.get("won");
 
-            if (user.getBestScore() == null) user.setBestScore(0);
-            if (user.getCurrentWinStreak() == null) user.setCurrentWinStreak(0);
-            if (user.getLongestWinStreak() == null) user.setLongestWinStreak(0);
-            if (user.getBestScoreDecks() == null) user.setBestScoreDecks(numDecks);
-
-            GameHistory history = new GameHistory(user, score, numDecks, won);
-            gameHistoryRepository.save(history);
-
-            int currentBest = user.getBestScore();
-            user.setBestScore(currentBest + score);
+            // Keep the seed and move log of the server-side game so it can be replayed
+            GameState game = gameService.getGame(gameId, username);
+            boolean sameGame = game != null && game.getNumDecks() == numDecks;
 
-            if (won) {
-                int newStreak = user.getCurrentWinStreak() + 1;
-                user.setCurrentWinStreak(newStreak);
+            // Written behind by the save queue; the streak it will leave is known now. The game's
+            // own streak was captured at its start and may predate another game of this user,
+            // so the queue reads the stored one
+            int newWinStreak = gameSaveQueue.submit(new GameResult(
+                    userDetails.getId(), score, numDecks, won,
+                    sameGame ? game.getSeed() : null,
+                    sameGame ? game.getMoveLog() : null,
+                    LocalDateTime.now()), null);
 
-                if (newStreak > user.getLongestWinStreak()) {
-                    user.setLongestWinStreak(newStreak);
-                }
-            } else {
-                user.setCurrentWinStreak(0);
+            if (sameGame && game.isGameOver()) {
+                gameService.resetGame(gameId, username);
             }
 
-            userRepository.save(user);
-
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Game saved successfully");
-            response.put("newWinStreak", user.getCurrentWinStreak());
+            response.put("newWinStreak", newWinStreak);
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
@@ -184,4 +250,35 @@ public class GameController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
+
+    private int currentWinStreak() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        int winStreak = 0;
+
+        if (authentication != null && authentication.isAuthenticated()) {
+            try {
+                UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+                // A result still in the save queue is newer than the stored streak
+                Integer pendingStreak = gameSaveQueue.pendingWinStreak(userDetails.getId());
+                if (pendingStreak != null) {
+                    return pendingStreak;
+                }
+                User user = userRepository.findByUsername(userDetails.getUsername()).orElse(null);
+                if (user != null && user.getCurrentWinStreak() != null) {
+                    winStreak = user.getCurrentWinStreak();
+                }
+            } catch (Exception e) {
+                // Guest or error - use 0 streak
+            }
+        }
+        return winStreak;
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
+            return ((UserDetailsImpl) authentication.getPrincipal()).getUsername();
+        }
+        return null;
+    }
 }
\ No newline at end of file
@@ -1,17 +1,30 @@
 package com.cardgame.backend.controller;
 
 import com.cardgame.backend.dto.LeaderboardEntry;
-import com.cardgame.backend.model.User;
+import com.cardgame.backend.leaderboard.LeaderboardIndex;
+import com.cardgame.backend.leaderboard.LeaderboardResponseCache;
+import com.cardgame.backend.leaderboard.LeaderboardResponseCache.CachedBoard;
+import com.cardgame.backend.model.ScorePeriod;
+import com.cardgame.backend.model.UserStats;
+import com.cardgame.backend.repository.LeaderboardRow;
 import com.cardgame.backend.repository.UserRepository;
 import com.cardgame.backend.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(
         origins = { "http://localhost:3000", "https://higherlowercardgame.onrender.com" },
@@ -21,55 +34,173 @@ import java.util.List;
 @RequestMapping("/api/leaderboard")
 public class LeaderboardController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private LeaderboardResponseCache leaderboardResponseCache;
+
     @Autowired
     private UserRepository userRepository;
 
     /**
      * ✅ UPDATED: Get global leaderboard with best score and longest streak
+     * GET /api/leaderboard?window=all|daily|weekly — daily and weekly rank the score made
+     * since the start of the current day or week
+     * GET /api/leaderboard?numDecks=8 — best single game with that many decks (all-time only)
+     * limit is capped at 100, like /page. Sends an ETag; a request whose If-None-Match still matches gets 304 Not Modified.
      */
     @GetMapping
-    public ResponseEntity<?> getLeaderboard(@RequestParam(defaultValue = "100") int limit) {
+    public ResponseEntity<?> getLeaderboard(@RequestParam(defaultValue = "100") int limit,
+                                            @RequestParam(defaultValue = "all") String window,
+                                            @RequestParam(required = false) Integer numDecks,
+                                            WebRequest request) {
+        ScorePeriod period;
+        try {
+            period = parseWindow(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "window must be all, daily or weekly"));
+        }
+        ResponseEntity<?> invalid = validateDifficulty(numDecks, period);
+        if (invalid != null) {
+            return invalid;
+        }
+
         try {
-            // Get current username if authenticated
-            String currentUsername = null;
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.isAuthenticated()
-                    && authentication.getPrincipal() instanceof UserDetailsImpl) {
-                UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-                currentUsername = userDetails.getUsername();
+            // Serialized once per index version, non-guest users ordered by score
+            CachedBoard board = leaderboardResponseCache.top(period, numDecks,
+                    Math.max(0, Math.min(limit, MAX_PAGE_SIZE)));
+            String currentUsername = currentUsername();
+            String etag = board.etagFor(currentUsername);
+            if (request.checkNotModified(etag)) {
+                return null; // 304, headers already set
             }
 
-            // Get all non-guest users sorted by best score
-            List<User> topUsers = userRepository.findAllByBestScoreGreaterThanEqualAndIsGuestFalseOrderByBestScoreDesc(0);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(board.bodyFor(currentUsername));
 
-            // Limit results
-            if (topUsers.size() > limit) {
-                topUsers = topUsers.subList(0, limit);
-            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    @GetMapping("/top10")
+    public ResponseEntity<?> getTop10(WebRequest request) {
+        return getLeaderboard(10, "all", null, request);
+    }
+
+    /**
+     * The current user's position with up to {@code radius} players either side.
+     * GET /api/leaderboard/around-me?radius=5&window=all|daily|weekly or &numDecks=8
+     */
+    @GetMapping("/around-me")
+    public ResponseEntity<?> getAroundMe(@RequestParam(defaultValue = "5") int radius,
+                                         @RequestParam(defaultValue = "all") String window,
+                                         @RequestParam(required = false) Integer numDecks) {
+        String currentUsername = currentUsername();
+        if (currentUsername == null) {
+            return ResponseEntity.status(401).build();
+        }
+        ScorePeriod period;
+        try {
+            period = parseWindow(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "window must be all, daily or weekly"));
+        }
+        ResponseEntity<?> invalid = validateDifficulty(numDecks, period);
+        if (invalid != null) {
+            return invalid;
+        }
+        int cappedRadius = Math.max(0, Math.min(radius, 50));
+        return ResponseEntity.ok(numDecks != null
+                ? leaderboardIndex.aroundForDifficulty(numDecks, currentUsername, cappedRadius)
+                : leaderboardIndex.around(period, currentUsername, cappedRadius));
+    }
+
+    // Difficulty boards are all-time only
+    private static ResponseEntity<?> validateDifficulty(Integer numDecks, ScorePeriod period) {
+        if (numDecks == null) {
+            return null;
+        }
+        if (numDecks < UserStats.MIN_DECKS || numDecks > UserStats.MAX_DECKS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "numDecks must be between "
+                    + UserStats.MIN_DECKS + " and " + UserStats.MAX_DECKS));
+        }
+        if (period != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "numDecks cannot be combined with a window"));
+        }
+        return null;
+    }
 
-            List<LeaderboardEntry> leaderboard = new ArrayList<>();
-            long rank = 1;
+    // null for the all-time board
+    private static ScorePeriod parseWindow(String window) {
+        return switch (window.toLowerCase()) {
+            case "all" -> null;
+            case "daily" -> ScorePeriod.DAILY;
+            case "weekly" -> ScorePeriod.WEEKLY;
+            default -> throw new IllegalArgumentException("Unknown window: " + window);
+        };
+    }
 
-            for (User user : topUsers) {
-                boolean isCurrentUser = currentUsername != null
-                        && user.getUsername().equals(currentUsername);
+    /**
+     * Keyset-paginated leaderboard read straight from the database.
+     * GET /api/leaderboard/page?size=20&cursor=...
+     * Returns { items, nextCursor }; pass nextCursor back to get the following page, it is
+     * null on the last one. Every page costs the same however deep it is.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getLeaderboardPage(@RequestParam(defaultValue = "20") int size,
+                                                @RequestParam(required = false) String cursor) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
 
+        long[] after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            after = decodeCursor(cursor);
+            if (after == null) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
 
-                LeaderboardEntry entry = new LeaderboardEntry(
-                        rank,
-                        user.getUsername(),
-                        user.getBestScore(),
-                        user.getLongestWinStreak() != null ? user.getLongestWinStreak() : 0,
-                        isCurrentUser,
-                        user.getStatsPublic() != null ? user.getStatsPublic() : true,
-                        user.getAvatar() != null ? user.getAvatar() : "🎴" // ✅ ADD THIS
-                );
+        try {
+            // One extra row tells us whether another page follows
+            List<LeaderboardRow> rows = after == null
+                    ? userRepository.findLeaderboardFirstPage(Limit.of(pageSize + 1))
+                    : userRepository.findLeaderboardPageAfter((int) after[0], after[1], Limit.of(pageSize + 1));
+            boolean hasMore = rows.size() > pageSize;
+            if (hasMore) {
+                rows = rows.subList(0, pageSize);
+            }
 
-                leaderboard.add(entry);
-                rank++;
+            String currentUsername = currentUsername();
+            long rank = after == null ? 1 : after[2] + 1;
+            List<LeaderboardEntry> items = new ArrayList<>(rows.size());
+            for (LeaderboardRow row : rows) {
+                items.add(new LeaderboardEntry(
+                        rank++,
+                        row.getUsername(),
+                        row.getBestScore(),
+                        row.getLongestWinStreak() != null ? row.getLongestWinStreak() : 0,
+                        row.getUsername().equals(currentUsername),
+                        row.getStatsPublic() != null ? row.getStatsPublic() : true,
+                        row.getAvatar() != null ? row.getAvatar() : "🎴"
+                ));
             }
 
-            return ResponseEntity.ok(leaderboard);
+            Map<String, Object> response = new HashMap<>();
+            response.put("items", items);
+            if (hasMore) {
+                LeaderboardRow last = rows.get(rows.size() - 1);
+                response.put("nextCursor", encodeCursor(last.getBestScore(), last.getId(), rank - 1));
+            } else {
+                response.put("nextCursor", null);
+            }
+            return ResponseEntity.ok(response);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -77,8 +208,31 @@ public class LeaderboardController {
         }
     }
 
-    @GetMapping("/top10")
-    public ResponseEntity<?> getTop10() {
-        return getLeaderboard(10);
+    // Cursor: score, id and rank of the last row served, as opaque URL-safe text
+    private static String encodeCursor(int score, long id, long rank) {
+        String raw = score + ":" + id + ":" + rank;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                return null;
+            }
+            return new long[]{Integer.parseInt(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2])};
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof UserDetailsImpl) {
+            return ((UserDetailsImpl) authentication.getPrincipal()).getUsername();
+        }
+        return null;
     }
 }
\ No newline at end of file
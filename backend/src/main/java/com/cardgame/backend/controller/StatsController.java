@@ -2,22 +2,31 @@ package com.cardgame.backend.controller;
 
 import com.cardgame.backend.dto.GameHistoryResponse;
 import com.cardgame.backend.dto.UserStatsResponse;
-import com.cardgame.backend.model.GameHistory;
+import com.cardgame.backend.leaderboard.LeaderboardIndex;
 import com.cardgame.backend.model.User;
+import com.cardgame.backend.model.UserStats;
 import com.cardgame.backend.repository.GameHistoryRepository;
 import com.cardgame.backend.repository.UserRepository;
+import com.cardgame.backend.repository.UserStatsRepository;
 import com.cardgame.backend.security.UserDetailsImpl;
+import com.cardgame.backend.service.GameResult;
+import com.cardgame.backend.service.GameSaveQueue;
+import com.cardgame.backend.stats.LogLinearHistogram;
+import com.cardgame.backend.stats.ScoreDistributions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/stats")
@@ -31,14 +40,29 @@ import java.util.stream.Collectors;
 
 public class StatsController {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private GameHistoryRepository gameHistoryRepository;
 
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private GameSaveQueue gameSaveQueue;
+
+    @Autowired
+    private ScoreDistributions scoreDistributions;
+
     /**
-     * Get current user's statistics
+     * Get current user's statistics, including games still waiting in the save queue so the
+     * post-game popup reflects the game just saved
      * GET /api/stats/me
      */
     @GetMapping("/me")
@@ -53,15 +77,31 @@ public class StatsController {
             User user = userRepository.findByUsername(userDetails.getUsername())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            long totalGames = gameHistoryRepository.countByUser(user);
-            long gamesWon = gameHistoryRepository.countByUserAndWonTrue(user);
-            double winRate = totalGames > 0 ? (double) gamesWon / totalGames * 100 : 0.0;
+            // One primary-key read of the running aggregate instead of counting history
+            UserStats userStats = userStatsRepository.findById(user.getId())
+                    .orElseGet(() -> new UserStats(user.getId()));
+            int bestScore = user.getBestScore() != null ? user.getBestScore() : 0;
+            int currentWinStreak = user.getCurrentWinStreak() != null ? user.getCurrentWinStreak() : 0;
+            int longestWinStreak = user.getLongestWinStreak() != null ? user.getLongestWinStreak() : 0;
+
+            // Read after the rows: the queue lets go of a result as soon as it is committed
+            List<GameResult> queued = gameSaveQueue.pendingResults(user.getId());
+            if (!queued.isEmpty()) {
+                userStats = userStats.copy();
+                for (GameResult game : queued) {
+                    userStats.record(game.numDecks(), game.won(), game.score());
+                    bestScore += game.score();
+                    currentWinStreak = game.won() ? currentWinStreak + 1 : 0;
+                    longestWinStreak = Math.max(longestWinStreak, currentWinStreak);
+                }
+            }
 
-            Integer bestScore = user.getBestScore() != null ? user.getBestScore() : 0;
-            Double averageScore = gameHistoryRepository.findAvgScoreByUser(user);
+            long totalGames = userStats.getGamesPlayed();
+            long gamesWon = userStats.getGamesWon();
+            double winRate = totalGames > 0 ? (double) gamesWon / totalGames * 100 : 0.0;
+            Double averageScore = userStats.getAverageScore();
 
-            Long userRank = userRepository.getUserRankByBestScore(bestScore);
-            userRank = (userRank != null) ? userRank + 1 : null;
+            Long userRank = leaderboardIndex.rankOf(bestScore);
 
             UserStatsResponse stats = new UserStatsResponse(
                     user.getId(),
@@ -72,9 +112,10 @@ public class StatsController {
                     bestScore,
                     averageScore != null ? Math.round(averageScore * 10.0) / 10.0 : 0.0,
                     userRank,
-                    user.getCurrentWinStreak() != null ? user.getCurrentWinStreak() : 0,
-                    user.getLongestWinStreak() != null ? user.getLongestWinStreak() : 0
+                    currentWinStreak,
+                    longestWinStreak
             );
+            stats.setDeckStats(userStats.getDeckBreakdown());
 
             return ResponseEntity.ok(stats);
 
@@ -85,11 +126,18 @@ public class StatsController {
     }
 
     /**
-     * Get current user's game history
-     * GET /api/stats/history
+     * Get current user's game history, newest first, one page at a time
+     * GET /api/stats/history?size=50&cursor=...&numDecks=8&from=2025-01-01T00:00:00&to=...
+     * Returns { items, nextCursor }; nextCursor is null on the last page.
      */
     @GetMapping("/history")
-    public ResponseEntity<?> getMyHistory() {
+    public ResponseEntity<?> getMyHistory(@RequestParam(defaultValue = "50") int size,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer numDecks,
+                                          @RequestParam(required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                          @RequestParam(required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             if (authentication == null || !authentication.isAuthenticated()) {
@@ -97,29 +145,92 @@ public class StatsController {
             }
 
             UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-            User user = userRepository.findByUsername(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
 
-            List<GameHistory> history = gameHistoryRepository.findByUserOrderByPlayedAtDesc(user);
+            LocalDateTime afterPlayedAt = null;
+            Long afterId = null;
+            if (cursor != null && !cursor.isEmpty()) {
+                try {
+                    String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                    afterPlayedAt = LocalDateTime.parse(parts[0]);
+                    afterId = Long.parseLong(parts[1]);
+                } catch (RuntimeException e) {
+                    // Not a cursor we issued: bad Base64, missing separator, unparsable timestamp or id
+                    return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor"));
+                }
+            }
 
-            List<GameHistoryResponse> response = history.stream()
-                    .map(game -> new GameHistoryResponse(
-                            game.getId(),
-                            game.getScore(),
-                            game.getNumDecks(),
-                            game.isWon(),
-                            game.getPlayedAt(),
-                            game.getDurationSeconds()
-                    ))
-                    .collect(Collectors.toList());
+            // One extra row tells us whether another page follows
+            List<GameHistoryResponse> items = gameHistoryRepository.findHistoryPage(
+                    userDetails.getId(), numDecks, from, to, afterPlayedAt, afterId, pageSize + 1);
+            boolean hasMore = items.size() > pageSize;
+            if (hasMore) {
+                items = items.subList(0, pageSize);
+            }
 
+            Map<String, Object> response = new HashMap<>();
+            response.put("items", items);
+            if (hasMore) {
+                GameHistoryResponse last = items.get(items.size() - 1);
+                String raw = last.getPlayedAt() + "|" + last.getId();
+                response.put("nextCursor", Base64.getUrlEncoder().withoutPadding()
+                        .encodeToString(raw.getBytes(StandardCharsets.UTF_8)));
+            } else {
+                response.put("nextCursor", null);
+            }
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
+            e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Share of saved games that scored below {@code score}, overall or for one difficulty
+     * GET /api/stats/percentile?score=120&numDecks=8
+     */
+    @GetMapping("/percentile")
+    public ResponseEntity<?> getPercentile(@RequestParam int score,
+                                           @RequestParam(required = false) Integer numDecks) {
+        LogLinearHistogram histogram = scoreDistributions.histogram(numDecks);
+        if (histogram == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown numDecks: " + numDecks));
+        }
+
+        long totalGames = histogram.count();
+        double percentile = totalGames > 0 ? (double) histogram.countBelow(score) / totalGames * 100 : 0.0;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("score", score);
+        response.put("numDecks", numDecks);
+        response.put("totalGames", totalGames);
+        response.put("percentile", Math.round(percentile * 10.0) / 10.0);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Score histogram of saved games, overall or for one difficulty
+     * GET /api/stats/distribution?numDecks=8
+     * Buckets are exact for low scores and about 3% wide above them.
+     */
+    @GetMapping("/distribution")
+    public ResponseEntity<?> getDistribution(@RequestParam(required = false) Integer numDecks) {
+        LogLinearHistogram histogram = scoreDistributions.histogram(numDecks);
+        if (histogram == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown numDecks: " + numDecks));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("numDecks", numDecks);
+        response.put("totalGames", histogram.count());
+        response.put("p50", histogram.valueAtPercentile(50));
+        response.put("p90", histogram.valueAtPercentile(90));
+        response.put("p99", histogram.valueAtPercentile(99));
+        response.put("buckets", histogram.buckets());
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * ✅ UPDATED: Get stats for a specific user with privacy check
      * GET /api/stats/user/{username}
@@ -154,18 +265,19 @@ public class StatsController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
             }
 
-            long totalGames = gameHistoryRepository.countByUser(targetUser);
-            long gamesWon = gameHistoryRepository.countByUserAndWonTrue(targetUser);
+            UserStats userStats = userStatsRepository.findById(targetUser.getId())
+                    .orElseGet(() -> new UserStats(targetUser.getId()));
+            long totalGames = userStats.getGamesPlayed();
+            long gamesWon = userStats.getGamesWon();
             double winRate = totalGames > 0 ? (double) gamesWon / totalGames * 100 : 0.0;
 
             Integer bestScore = targetUser.getBestScore() != null ? targetUser.getBestScore() : 0;
             Integer bestScoreDecks = targetUser.getBestScoreDecks() != null ? targetUser.getBestScoreDecks() : 0;
 
-            Double averageScore = gameHistoryRepository.findAvgScoreByUser(targetUser);
+            Double averageScore = userStats.getAverageScore();
             averageScore = averageScore != null ? Math.round(averageScore * 10.0) / 10.0 : 0.0;
 
-            Long userRank = userRepository.getUserRankByBestScore(bestScore);
-            userRank = (userRank != null) ? userRank + 1 : null;
+            Long userRank = leaderboardIndex.rankOf(bestScore);
 
             Integer currentStreak = targetUser.getCurrentWinStreak() != null ? targetUser.getCurrentWinStreak() : 0;
             Integer longestStreak = targetUser.getLongestWinStreak() != null ? targetUser.getLongestWinStreak() : 0;
@@ -195,6 +307,7 @@ public class StatsController {
             response.put("userRank", stats.getUserRank());
             response.put("currentWinStreak", stats.getCurrentWinStreak());
             response.put("longestWinStreak", stats.getLongestWinStreak());
+            response.put("deckStats", userStats.getDeckBreakdown());
             response.put("statsPublic", statsPublic);
 
             return ResponseEntity.ok(response);
@@ -1,5 +1,6 @@
 package com.cardgame.backend.controller;
 
+import com.cardgame.backend.leaderboard.LeaderboardIndex;
 import com.cardgame.backend.model.User;
 import com.cardgame.backend.repository.UserRepository;
 import com.cardgame.backend.security.UserDetailsImpl;
@@ -10,6 +11,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @CrossOrigin(
@@ -23,6 +25,9 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
     // ✅ Get all user settings
     @GetMapping("/settings")
     public ResponseEntity<?> getAllSettings() {
@@ -61,31 +66,17 @@ public class UserController {
             User user = userRepository.findByUsername(userDetails.getUsername())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            // Update avatar if provided
-            if (request.containsKey("avatar")) {
-                String avatar = (String) request.get("avatar");
-                user.setAvatar(avatar);
-            }
-
-            // Update theme if provided
-            if (request.containsKey("theme")) {
-                String theme = (String) request.get("theme");
-                user.setTheme(theme);
-            }
-
-            // Update card back if provided
-            if (request.containsKey("cardBack")) {
-                String cardBack = (String) request.get("cardBack");
-                user.setCardBack(cardBack);
-            }
-
-            // Update privacy setting if provided
-            if (request.containsKey("statsPublic")) {
-                Boolean statsPublic = (Boolean) request.get("statsPublic");
-                user.setStatsPublic(statsPublic);
-            }
+            // Each setting keeps its current value unless provided
+            String avatar = request.containsKey("avatar") ? (String) request.get("avatar") : user.getAvatar();
+            String theme = request.containsKey("theme") ? (String) request.get("theme") : user.getTheme();
+            String cardBack = request.containsKey("cardBack") ? (String) request.get("cardBack") : user.getCardBack();
+            Boolean statsPublic = request.containsKey("statsPublic")
+                    ? (Boolean) request.get("statsPublic") : user.getStatsPublic();
 
-            userRepository.save(user);
+            // Only the settings columns: the score and streaks may have moved since the load
+            userRepository.updateSettings(user.getId(), avatar, theme, cardBack, statsPublic);
+            // Avatar and privacy are shown on the leaderboard
+            userRepository.findScoreRows(List.of(user.getId())).forEach(leaderboardIndex::update);
 
             Map<String, String> response = new HashMap<>();
             response.put("message", "Settings updated successfully");
@@ -133,17 +124,13 @@ public class UserController {
             User user = userRepository.findByUsername(userDetails.getUsername())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            if (request.containsKey("statsPublic")) {
-                Boolean statsPublic = (Boolean) request.get("statsPublic");
-                user.setStatsPublic(statsPublic);
-            }
-
-            if (request.containsKey("avatar")) {
-                String avatar = (String) request.get("avatar");
-                user.setAvatar(avatar);
-            }
+            Boolean statsPublic = request.containsKey("statsPublic")
+                    ? (Boolean) request.get("statsPublic") : user.getStatsPublic();
+            String avatar = request.containsKey("avatar") ? (String) request.get("avatar") : user.getAvatar();
 
-            userRepository.save(user);
+            userRepository.updateSettings(user.getId(), avatar, user.getTheme(), user.getCardBack(), statsPublic);
+            // Avatar and privacy are shown on the leaderboard
+            userRepository.findScoreRows(List.of(user.getId())).forEach(leaderboardIndex::update);
 
             Map<String, String> response = new HashMap<>();
             response.put("message", "Settings updated");
@@ -0,0 +1,34 @@
+package com.cardgame.backend.dto;
+
+import com.cardgame.backend.model.GuessRequest;
+
+import java.util.List;
+
+public class GuessBatchRequest {
+
+    private List<GuessRequest> moves;   // Applied in order
+    private boolean finalOnly;          // Return only the final state instead of one per move
+
+    public GuessBatchRequest() {}
+
+    public GuessBatchRequest(List<GuessRequest> moves, boolean finalOnly) {
+        this.moves = moves;
+        this.finalOnly = finalOnly;
+    }
+
+    public List<GuessRequest> getMoves() {
+        return moves;
+    }
+
+    public void setMoves(List<GuessRequest> moves) {
+        this.moves = moves;
+    }
+
+    public boolean isFinalOnly() {
+        return finalOnly;
+    }
+
+    public void setFinalOnly(boolean finalOnly) {
+        this.finalOnly = finalOnly;
+    }
+}
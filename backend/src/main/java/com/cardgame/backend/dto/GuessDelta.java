@@ -0,0 +1,122 @@
+package com.cardgame.backend.dto;
+
+import com.cardgame.backend.model.GuessResult;
+import com.cardgame.backend.model.ProbabilityInfo;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Compact answer to a guess: only what changed, with a result code instead of the formatted
+ * message. Returned by POST /api/game/guess?compact=true.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GuessDelta {
+
+    private GuessResult result;
+    private int deckIndex;          // 0-based deck the guess was made on
+    private String drawnCard;       // null when nothing was drawn
+    private String newTop;          // New top of the deck, null when it was eliminated
+    private boolean eliminated;
+    private int score;
+    private boolean gameOver;
+    private boolean won;
+    private int currentWinStreak;
+    private Map<Integer, ProbabilityInfo> probabilities; // Only when requested
+
+    public GuessDelta() {}
+
+    public GuessDelta(GuessResult result, int deckIndex, String drawnCard, String newTop, boolean eliminated,
+                      int score, boolean gameOver, boolean won, int currentWinStreak) {
+        this.result = result;
+        this.deckIndex = deckIndex;
+        this.drawnCard = drawnCard;
+        this.newTop = newTop;
+        this.eliminated = eliminated;
+        this.score = score;
+        this.gameOver = gameOver;
+        this.won = won;
+        this.currentWinStreak = currentWinStreak;
+    }
+
+    // Getters and Setters
+    public GuessResult getResult() {
+        return result;
+    }
+
+    public void setResult(GuessResult result) {
+        this.result = result;
+    }
+
+    public int getDeckIndex() {
+        return deckIndex;
+    }
+
+    public void setDeckIndex(int deckIndex) {
+        this.deckIndex = deckIndex;
+    }
+
+    public String getDrawnCard() {
+        return drawnCard;
+    }
+
+    public void setDrawnCard(String drawnCard) {
+        this.drawnCard = drawnCard;
+    }
+
+    public String getNewTop() {
+        return newTop;
+    }
+
+    public void setNewTop(String newTop) {
+        this.newTop = newTop;
+    }
+
+    public boolean isEliminated() {
+        return eliminated;
+    }
+
+    public void setEliminated(boolean eliminated) {
+        this.eliminated = eliminated;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public void setGameOver(boolean gameOver) {
+        this.gameOver = gameOver;
+    }
+
+    public boolean isWon() {
+        return won;
+    }
+
+    public void setWon(boolean won) {
+        this.won = won;
+    }
+
+    public int getCurrentWinStreak() {
+        return currentWinStreak;
+    }
+
+    public void setCurrentWinStreak(int currentWinStreak) {
+        this.currentWinStreak = currentWinStreak;
+    }
+
+    public Map<Integer, ProbabilityInfo> getProbabilities() {
+        return probabilities;
+    }
+
+    public void setProbabilities(Map<Integer, ProbabilityInfo> probabilities) {
+        this.probabilities = probabilities;
+    }
+}
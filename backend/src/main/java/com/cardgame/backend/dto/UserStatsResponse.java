@@ -1,5 +1,9 @@
 package com.cardgame.backend.dto;
 
+import com.cardgame.backend.model.DeckStats;
+
+import java.util.Map;
+
 public class UserStatsResponse {
 
     private Long userId;
@@ -12,6 +16,7 @@ public class UserStatsResponse {
     private Long userRank;
     private Integer currentWinStreak; // ✅ NEW
     private Integer longestWinStreak; // ✅ NEW
+    private Map<Integer, DeckStats> deckStats; // Totals per number of decks
 
     public UserStatsResponse() {}
 
@@ -110,4 +115,12 @@ public class UserStatsResponse {
     public void setLongestWinStreak(Integer longestWinStreak) {
         this.longestWinStreak = longestWinStreak;
     }
-}
\ No newline at end of file
+
+    public Map<Integer, DeckStats> getDeckStats() {
+        return deckStats;
+    }
+
+    public void setDeckStats(Map<Integer, DeckStats> deckStats) {
+        this.deckStats = deckStats;
+    }
+}
@@ -0,0 +1,116 @@
+package com.cardgame.backend.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Compact card encoding used by the game engine.
+ *
+ * A card is a code in [0, 52): {@code suit * 13 + (rank - 1)}, with suits ordered S, C, H, D
+ * and ranks running from 1 (Ace) to 13 (King). A set of cards is a 52-bit {@code long} where
+ * bit {@code code} is set when the card is present. All lookups are table based so the hot
+ * path never parses or builds card strings.
+ */
+public final class Cards {
+
+    public static final int DECK_SIZE = 52;
+    public static final int RANKS = 13;
+    public static final int SUITS = 4;
+
+    /** Marker for an eliminated pile / no card. */
+    public static final byte NONE = -1;
+
+    /** Card string the API uses for an eliminated pile. */
+    public static final String ELIMINATED = "XX";
+
+    /** Mask with every card of a standard deck present. */
+    public static final long FULL_DECK = (1L << DECK_SIZE) - 1;
+
+    private static final String[] SUIT_NAMES = {"S", "C", "H", "D"};
+    private static final String[] VALUE_NAMES = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
+
+    private static final byte[] RANK = new byte[DECK_SIZE];
+    private static final byte[] SUIT = new byte[DECK_SIZE];
+    private static final String[] NAMES = new String[DECK_SIZE];
+
+    static {
+        for (int suit = 0; suit < SUITS; suit++) {
+            for (int value = 0; value < RANKS; value++) {
+                int code = suit * RANKS + value;
+                RANK[code] = (byte) (value + 1);
+                SUIT[code] = (byte) suit;
+                NAMES[code] = VALUE_NAMES[value] + SUIT_NAMES[suit];
+            }
+        }
+    }
+
+    private Cards() {
+    }
+
+    public static int code(int suit, int rank) {
+        return suit * RANKS + (rank - 1);
+    }
+
+    /** Rank of a card: 1 (Ace) to 13 (King). */
+    public static int rank(int card) {
+        return RANK[card];
+    }
+
+    public static int suit(int card) {
+        return SUIT[card];
+    }
+
+    public static String suitName(int suit) {
+        return SUIT_NAMES[suit];
+    }
+
+    /** API name of a card, e.g. "10H", or "XX" for {@link #NONE}. */
+    public static String name(int card) {
+        return card < 0 ? ELIMINATED : NAMES[card];
+    }
+
+    /** Parses an API card name such as "QS" back to its code, or {@link #NONE} for "XX". */
+    public static int parse(String name) {
+        if (name == null || name.equalsIgnoreCase(ELIMINATED)) {
+            return NONE;
+        }
+        for (int card = 0; card < DECK_SIZE; card++) {
+            if (NAMES[card].equalsIgnoreCase(name)) {
+                return card;
+            }
+        }
+        throw new IllegalArgumentException("Unknown card: " + name);
+    }
+
+    /**
+     * Returns the full deck in the order produced by a Fisher-Yates shuffle seeded with
+     * {@code seed}. The same seed always yields the same order, which is what makes games
+     * replayable.
+     */
+    public static byte[] shuffledDeck(long seed) {
+        byte[] deck = new byte[DECK_SIZE];
+        for (int card = 0; card < DECK_SIZE; card++) {
+            deck[card] = (byte) card;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = DECK_SIZE - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte tmp = deck[i];
+            deck[i] = deck[j];
+            deck[j] = tmp;
+        }
+        return deck;
+    }
+
+    public static boolean contains(long mask, int card) {
+        return (mask & (1L << card)) != 0;
+    }
+
+    /** Returns the code of the {@code n}-th (0-based) card present in {@code mask}. */
+    public static int nthCard(long mask, int n) {
+        for (int i = 0; i < n; i++) {
+            mask &= mask - 1;
+        }
+        return Long.numberOfTrailingZeros(mask);
+    }
+}
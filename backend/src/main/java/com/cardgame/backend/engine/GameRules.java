@@ -0,0 +1,172 @@
+package com.cardgame.backend.engine;
+
+import com.cardgame.backend.model.GameState;
+import com.cardgame.backend.model.GuessResult;
+
+/**
+ * The rules of the game: dealing, applying a guess and scoring. Pure functions of a
+ * {@link GameState}, shared by {@code GameService} and the offline simulator.
+ */
+public final class GameRules {
+
+    private static final int TOTAL_CARDS = 52;
+
+    private GameRules() {
+    }
+
+    /**
+     * ✅ UPDATED: Calculate score multiplier based on number of decks
+     */
+    public static double getDeckMultiplier(int numDecks) {
+        switch (numDecks) {
+            case 6: return 2.0;  // Hardest
+            case 7: return 1.8;
+            case 8: return 1.5;
+            case 9: return 1.2;
+            case 10: return 1.0; // Easiest
+            default: return 1.0;
+        }
+    }
+
+    /**
+     * ✅ NEW: Calculate streak multiplier based on user's win streak
+     */
+    public static double getStreakMultiplier(int winStreak) {
+        if (winStreak < 2) return 1.0;
+        // Starts at 1.1x for 2-game streak, increases by 0.05x per additional win
+        return 1.0 + (0.05 * winStreak);
+    }
+
+    /**
+     * ✅ NEW: Calculate bonus points for winning
+     */
+    public static int getVictoryBonus(int numDecks, int winStreak) {
+        int deckBonus = (11 - numDecks) * 50; // More bonus for harder difficulties
+        int streakBonus = winStreak * 25; // 25 points per win in streak
+        return deckBonus + streakBonus;
+    }
+
+    /** Deals a game from {@code seed}: the shuffled deck and one face-up card per pile. */
+    public static GameState newGame(int numDecks, long seed) {
+        GameState game = new GameState(numDecks, seed);
+
+        for (int i = 0; i < numDecks; i++) {
+            game.setPileTop(i, drawRandomCard(game));
+        }
+        game.setScore(0);
+        game.setMessage("Game started! Choose a deck and guess high or low.");
+
+        return game;
+    }
+
+    /**
+     * Draws the next card of the game's pre-shuffled deck.
+     * Returns {@link Cards#NONE} when the deck is empty.
+     */
+    private static int drawRandomCard(GameState game) {
+        return game.drawNextCard();
+    }
+
+    /**
+     * Applies one guess to {@code game} and returns its outcome. The outcome and the values
+     * needed to describe it are recorded on the game; the message is formatted lazily.
+     */
+    public static GuessResult applyGuess(GameState game, int deckNumber, String guess, int userWinStreak) {
+        int deck = deckNumber - 1;
+
+        if (game.isGameOver()) {
+            game.recordResult(GuessResult.GAME_OVER, deck, Cards.NONE, userWinStreak, 0, 0);
+            return GuessResult.GAME_OVER;
+        }
+
+        if (deckNumber < 1 || deckNumber > game.getNumDecks()) {
+            game.recordResult(GuessResult.INVALID_DECK, deck, Cards.NONE, userWinStreak, 0, 0);
+            return GuessResult.INVALID_DECK;
+        }
+
+        int topCard = game.getPileTop(deck);
+        if (topCard == Cards.NONE) {
+            game.recordResult(GuessResult.DECK_ELIMINATED, deck, Cards.NONE, userWinStreak, 0, 0);
+            return GuessResult.DECK_ELIMINATED;
+        }
+
+        int newCard = drawRandomCard(game);
+        if (newCard != Cards.NONE) {
+            game.recordMove(deck, guessCode(guess));
+        }
+
+        // Calculate remaining cards
+        int remainingCardsCount = game.getRemainingCount();
+
+        // ✅ Calculate score with win streak multiplier
+        int baseScore = TOTAL_CARDS - remainingCardsCount;
+        double deckMultiplier = getDeckMultiplier(game.getNumDecks());
+        double streakMultiplier = getStreakMultiplier(userWinStreak);
+
+        boolean correct = newCard != Cards.NONE && checkGuess(topCard, newCard, guess);
+
+        int finalScore = (int) Math.round(baseScore * deckMultiplier * streakMultiplier);
+
+        // Check win condition (deck exhausted)
+        if (baseScore >= TOTAL_CARDS || remainingCardsCount == 0 || newCard == Cards.NONE) {
+            int victoryBonus = getVictoryBonus(game.getNumDecks(), userWinStreak);
+            finalScore += victoryBonus;
+
+            game.setScore(finalScore);
+            game.setGameOver(true);
+            game.setWon(true);
+            if (newCard != Cards.NONE) {
+                game.setPileTop(deck, correct ? newCard : Cards.NONE);
+            }
+            game.recordResult(GuessResult.VICTORY, deck, newCard, userWinStreak, streakMultiplier, victoryBonus);
+            return GuessResult.VICTORY;
+        }
+
+        game.setScore(finalScore);
+
+        if (correct) {
+            game.setPileTop(deck, newCard);
+            game.recordResult(GuessResult.CORRECT, deck, newCard, userWinStreak, streakMultiplier, 0);
+            return GuessResult.CORRECT;
+        }
+
+        game.setPileTop(deck, Cards.NONE);
+
+        // Check if all decks eliminated
+        if (game.getActivePiles() == 0) {
+            game.setGameOver(true);
+            game.setWon(false);
+            game.recordResult(GuessResult.ALL_ELIMINATED, deck, newCard, userWinStreak, streakMultiplier, 0);
+            return GuessResult.ALL_ELIMINATED;
+        }
+
+        game.recordResult(GuessResult.WRONG, deck, newCard, userWinStreak, streakMultiplier, 0);
+        return GuessResult.WRONG;
+    }
+
+    private static char guessCode(String guess) {
+        if (guess.equalsIgnoreCase("h") || guess.equalsIgnoreCase("high")) {
+            return 'h';
+        } else if (guess.equalsIgnoreCase("l") || guess.equalsIgnoreCase("low")) {
+            return 'l';
+        }
+        return '?';
+    }
+
+    private static boolean checkGuess(int topCard, int newCard, String guess) {
+        int topValue = Cards.rank(topCard);
+        int newValue = Cards.rank(newCard);
+
+        if (topValue == newValue) {
+            return true;
+        }
+
+        if (guess.equalsIgnoreCase("h") || guess.equalsIgnoreCase("high")) {
+            return newValue > topValue;
+        } else if (guess.equalsIgnoreCase("l") || guess.equalsIgnoreCase("low")) {
+            return newValue < topValue;
+        }
+
+        return false;
+    }
+}
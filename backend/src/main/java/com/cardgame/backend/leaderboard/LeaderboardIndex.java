@@ -0,0 +1,465 @@
+package com.cardgame.backend.leaderboard;
+
+import com.cardgame.backend.dto.LeaderboardEntry;
+import com.cardgame.backend.model.ScoreBucket;
+import com.cardgame.backend.model.ScorePeriod;
+import com.cardgame.backend.model.User;
+import com.cardgame.backend.model.UserStats;
+import com.cardgame.backend.repository.LeaderboardRow;
+import com.cardgame.backend.repository.ScoreBucketRepository;
+import com.cardgame.backend.repository.UserRepository;
+import com.cardgame.backend.repository.UserStatsRepository;
+import com.cardgame.backend.repository.UserScoreRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory leaderboards of non-guest users: the all-time board ordered by best score, one
+ * board per {@link ScorePeriod} ordered by the score made in the current day or week, and
+ * one board per difficulty ordered by the best single game played with that many decks
+ * (ties by user id), as kept in user_stats. Warmed from the database at startup, updated whenever a user's score or
+ * profile changes, and rebuilt periodically so edits made by other instances are picked up.
+ * Window boards start empty again when their period ends.
+ * Top-N, rank and around-me lookups cost O(log n) plus the size of the answer on every board.
+ */
+@Service
+public class LeaderboardIndex {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ScoreBucketRepository scoreBucketRepository;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // One rebuild at a time; a monitor would pin a virtual thread for all of its queries
+    private final Lock rebuildLock = new ReentrantLock();
+    private Index index = new Index();
+    // Updates made while a rebuild was reading the tables; re-applied on top of its result
+    private List<Consumer<Index>> updatedDuringRebuild;
+    // Bumped under the write lock on every change, so readers can tell a cached answer is stale
+    private volatile long version;
+
+    private record Player(long id, String username, int longestStreak, boolean statsPublic, String avatar) {
+    }
+
+    /** One ranking: each listed user's score, and the same scores in order. */
+    private static final class Board {
+        final LocalDate periodStart; // null on the all-time board
+        final OrderStatisticTree tree = new OrderStatisticTree();
+        final Map<Long, Integer> scores = new HashMap<>();
+
+        Board(LocalDate periodStart) {
+            this.periodStart = periodStart;
+        }
+
+        void put(long id, int score) {
+            remove(id);
+            tree.insert(score, id);
+            scores.put(id, score);
+        }
+
+        void remove(long id) {
+            Integer old = scores.remove(id);
+            if (old != null) {
+                tree.remove(old, id);
+            }
+        }
+    }
+
+    private static final class Index {
+        final Map<Long, Player> players = new HashMap<>();
+        final Map<String, Long> idsByUsername = new HashMap<>();
+        final Board allTime = new Board(null);
+        final Map<ScorePeriod, Board> windows = new EnumMap<>(ScorePeriod.class);
+        final Map<Integer, Board> byDecks = new HashMap<>();
+
+        Index() {
+            for (int numDecks = UserStats.MIN_DECKS; numDecks <= UserStats.MAX_DECKS; numDecks++) {
+                byDecks.put(numDecks, new Board(null));
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${leaderboard.refresh-interval-ms:300000}",
+            initialDelayString = "${leaderboard.refresh-interval-ms:300000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildIndex();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildIndex() {
+        lock.writeLock().lock();
+        try {
+            updatedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index rebuilt = new Index();
+        try {
+            // Read the table in keyset batches of projected rows, never as full entities
+            List<LeaderboardRow> batch = userRepository.findLeaderboardFirstPage(Limit.of(REBUILD_BATCH_SIZE));
+            while (!batch.isEmpty()) {
+                for (LeaderboardRow row : batch) {
+                    list(rebuilt, toPlayer(row), row.getBestScore());
+                }
+                if (batch.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+                LeaderboardRow last = batch.get(batch.size() - 1);
+                batch = userRepository.findLeaderboardPageAfter(
+                        last.getBestScore(), last.getId(), Limit.of(REBUILD_BATCH_SIZE));
+            }
+
+            LocalDate today = LocalDate.now();
+            for (ScorePeriod period : ScorePeriod.values()) {
+                LocalDate start = period.startOf(today);
+                for (ScoreBucket bucket : scoreBucketRepository.findByPeriodTypeAndPeriodStart(period, start)) {
+                    recordWindowScore(rebuilt, period, start, bucket.getUserId(), bucket.getScore());
+                }
+            }
+
+            // Best scores are kept per user in user_stats, so this is a read, not an aggregation of game_history
+            List<Object[]> bests = userStatsRepository.findBestScoresAfter(0L, Limit.of(REBUILD_BATCH_SIZE));
+            while (!bests.isEmpty()) {
+                for (Object[] row : bests) {
+                    for (int numDecks = UserStats.MIN_DECKS; numDecks <= UserStats.MAX_DECKS; numDecks++) {
+                        Number best = (Number) row[numDecks - UserStats.MIN_DECKS + 1];
+                        if (best != null) {
+                            recordGameScore(rebuilt, numDecks, (Long) row[0], best.intValue());
+                        }
+                    }
+                }
+                if (bests.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+                bests = userStatsRepository.findBestScoresAfter(
+                        (Long) bests.get(bests.size() - 1)[0], Limit.of(REBUILD_BATCH_SIZE));
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the current index; the next refresh tries again
+            lock.writeLock().lock();
+            try {
+                updatedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            index = rebuilt;
+            List<Consumer<Index>> updated = updatedDuringRebuild;
+            updatedDuringRebuild = null;
+            updated.forEach(change -> change.accept(rebuilt));
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Empties window boards whose period has ended, so nobody sees yesterday's daily board. */
+    @Scheduled(fixedDelayString = "${leaderboard.rollover-check-ms:60000}")
+    public void rollOverWindows() {
+        LocalDate today = LocalDate.now();
+        lock.writeLock().lock();
+        try {
+            for (ScorePeriod period : ScorePeriod.values()) {
+                LocalDate start = period.startOf(today);
+                Board board = index.windows.get(period);
+                if (board == null || board.periodStart.isBefore(start)) {
+                    index.windows.put(period, new Board(start));
+                    version++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Re-positions {@code user} after a change to their score or profile; guests are left out. */
+    public void update(User user) {
+        if (user.getId() == null) {
+            return;
+        }
+        boolean listed = !user.isGuest() && user.getBestScore() != null;
+        Player player = listed ? toPlayer(user) : null;
+        int bestScore = listed ? user.getBestScore() : 0;
+        apply(index -> reposition(index, user.getId(), player, bestScore));
+    }
+
+    /** Same as {@link #update(User)} from the values read back after a game was saved. */
+    public void update(UserScoreRow row) {
+        boolean listed = !Boolean.TRUE.equals(row.getGuest()) && row.getBestScore() != null;
+        Player player = listed ? toPlayer(row) : null;
+        int bestScore = listed ? row.getBestScore() : 0;
+        apply(index -> reposition(index, row.getId(), player, bestScore));
+    }
+
+    /**
+     * Sets a user's score for the {@code period} starting at {@code periodStart}. Scores for
+     * a period that has already ended are ignored; one for a newer period starts its board over.
+     */
+    public void updateWindow(ScorePeriod period, LocalDate periodStart, Long userId, int score) {
+        apply(index -> recordWindowScore(index, period, periodStart, userId, score));
+    }
+
+    /** Records a finished game on its difficulty's board if it beats the user's best there. */
+    public void updateDifficulty(int numDecks, Long userId, int score) {
+        apply(index -> recordGameScore(index, numDecks, userId, score));
+    }
+
+    private void apply(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            version++;
+            if (updatedDuringRebuild != null) {
+                updatedDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // player is null when the user should not be listed
+    private static void reposition(Index index, Long id, Player player, int bestScore) {
+        Player old = index.players.remove(id);
+        if (old != null) {
+            index.idsByUsername.remove(old.username());
+        }
+        if (player != null) {
+            list(index, player, bestScore);
+        } else {
+            index.allTime.remove(id);
+            for (Board board : index.windows.values()) {
+                board.remove(id);
+            }
+            for (Board board : index.byDecks.values()) {
+                board.remove(id);
+            }
+        }
+    }
+
+    private static void list(Index index, Player player, int bestScore) {
+        index.players.put(player.id(), player);
+        index.idsByUsername.put(player.username(), player.id());
+        index.allTime.put(player.id(), bestScore);
+    }
+
+    private static void recordWindowScore(Index index, ScorePeriod period, LocalDate periodStart,
+                                          Long userId, int score) {
+        if (!index.players.containsKey(userId)) {
+            return;
+        }
+        Board board = index.windows.get(period);
+        if (board == null || board.periodStart.isBefore(periodStart)) {
+            board = new Board(periodStart);
+            index.windows.put(period, board);
+        } else if (board.periodStart.isAfter(periodStart)) {
+            return;
+        }
+        board.put(userId, score);
+    }
+
+    private static void recordGameScore(Index index, int numDecks, Long userId, int score) {
+        Board board = index.byDecks.get(numDecks);
+        if (board == null || !index.players.containsKey(userId)) {
+            return;
+        }
+        Integer best = board.scores.get(userId);
+        if (best == null || score > best) {
+            board.put(userId, score);
+        }
+    }
+
+    /** The best {@code limit} players of all time, ranked 1..limit. */
+    public List<LeaderboardEntry> top(int limit, String currentUsername) {
+        return top(null, limit, currentUsername);
+    }
+
+    /** The best {@code limit} players of the current {@code window}, or of all time if it is null. */
+    public List<LeaderboardEntry> top(ScorePeriod window, int limit, String currentUsername) {
+        lock.readLock().lock();
+        try {
+            Board board = board(window);
+            if (board == null) {
+                return Collections.emptyList();
+            }
+            return entries(board, 0, Math.max(0, limit), currentUsername);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code radius} players either side of {@code username} on the all-time board,
+     * with their positions. Empty if the user is not on the leaderboard.
+     */
+    public List<LeaderboardEntry> around(String username, int radius) {
+        return around(null, username, radius);
+    }
+
+    /** Same as {@link #around(String, int)} on the current {@code window}'s board. */
+    public List<LeaderboardEntry> around(ScorePeriod window, String username, int radius) {
+        lock.readLock().lock();
+        try {
+            return entriesAround(board(window), username, radius);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<LeaderboardEntry> entriesAround(Board board, String username, int radius) {
+        Long id = index.idsByUsername.get(username);
+        if (board == null || id == null || !board.scores.containsKey(id)) {
+            return Collections.emptyList();
+        }
+        int position = board.tree.countBefore(board.scores.get(id), id);
+        int from = Math.max(0, position - radius);
+        return entries(board, from, position + radius + 1 - from, username);
+    }
+
+    /** The best {@code limit} players with {@code numDecks} decks, by their best single game. */
+    public List<LeaderboardEntry> topForDifficulty(int numDecks, int limit, String currentUsername) {
+        lock.readLock().lock();
+        try {
+            Board board = index.byDecks.get(numDecks);
+            if (board == null) {
+                return Collections.emptyList();
+            }
+            return entries(board, 0, Math.max(0, limit), currentUsername);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Same as {@link #around(String, int)} on the {@code numDecks} board. */
+    public List<LeaderboardEntry> aroundForDifficulty(int numDecks, String username, int radius) {
+        lock.readLock().lock();
+        try {
+            return entriesAround(index.byDecks.get(numDecks), username, radius);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Rank a best single game would have on the {@code numDecks} board, or null for an unknown difficulty. */
+    public Long rankOf(int numDecks, int score) {
+        lock.readLock().lock();
+        try {
+            Board board = index.byDecks.get(numDecks);
+            return board != null ? board.tree.countHigher(score) + 1L : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** All-time rank a best score would have: one more than the number of players strictly above it. */
+    public long rankOf(int bestScore) {
+        lock.readLock().lock();
+        try {
+            return index.allTime.tree.countHigher(bestScore) + 1L;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Changes whenever any board may have changed. */
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.allTime.tree.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The board to read, or null if the window's period has ended and nothing was scored since
+    private Board board(ScorePeriod window) {
+        if (window == null) {
+            return index.allTime;
+        }
+        Board board = index.windows.get(window);
+        if (board == null || board.periodStart.isBefore(window.startOf(LocalDate.now()))) {
+            return null;
+        }
+        return board;
+    }
+
+    private List<LeaderboardEntry> entries(Board board, int from, int count, String currentUsername) {
+        List<Long> ids = board.tree.range(from, count);
+        List<LeaderboardEntry> entries = new ArrayList<>(ids.size());
+        long rank = from + 1;
+        for (Long id : ids) {
+            Player player = index.players.get(id);
+            entries.add(new LeaderboardEntry(
+                    rank++,
+                    player.username(),
+                    board.scores.get(id),
+                    player.longestStreak(),
+                    player.username().equals(currentUsername),
+                    player.statsPublic(),
+                    player.avatar()
+            ));
+        }
+        return entries;
+    }
+
+    private static Player toPlayer(LeaderboardRow row) {
+        return new Player(
+                row.getId(),
+                row.getUsername(),
+                row.getLongestWinStreak() != null ? row.getLongestWinStreak() : 0,
+                row.getStatsPublic() != null ? row.getStatsPublic() : true,
+                row.getAvatar() != null ? row.getAvatar() : "🎴"
+        );
+    }
+
+    private static Player toPlayer(User user) {
+        return new Player(
+                user.getId(),
+                user.getUsername(),
+                user.getLongestWinStreak() != null ? user.getLongestWinStreak() : 0,
+                user.getStatsPublic() != null ? user.getStatsPublic() : true,
+                user.getAvatar() != null ? user.getAvatar() : "🎴"
+        );
+    }
+}
@@ -0,0 +1,159 @@
+package com.cardgame.backend.leaderboard;
+
+import com.cardgame.backend.dto.LeaderboardEntry;
+import com.cardgame.backend.model.ScorePeriod;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serialized leaderboard responses, built once per {@link LeaderboardIndex#version()} and
+ * shared by every viewer. Entries are stored with {@code currentUser} false; for a signed-in
+ * viewer on the board the flag is patched into a copy of the bytes. Only the sizes the
+ * clients ask for are kept, so callers cycling through other limits cannot evict them.
+ */
+@Component
+public class LeaderboardResponseCache {
+
+    private static final int MAX_CACHED = 64;
+    // The default board and /top10; other limits are serialized per request
+    private static final Set<Integer> CACHED_LIMITS = Set.of(10, 100);
+    private static final byte[] FLAG_OFF = "\"currentUser\":false".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, CachedBoard> boards = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedBoard> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    /**
+     * The serialized board for a window or difficulty (see {@link LeaderboardIndex#top} and
+     * {@link LeaderboardIndex#topForDifficulty}), rebuilt if the index changed since it was cached.
+     */
+    public CachedBoard top(ScorePeriod window, Integer numDecks, int limit) {
+        // Window boards are keyed by period so a new day never serves yesterday's bytes
+        String key = (numDecks != null ? "decks" + numDecks
+                : window != null ? window.name().toLowerCase() + window.startOf(LocalDate.now()) : "all")
+                + "." + limit;
+
+        // Read before the entries: if they change in between, the next request rebuilds
+        long version = leaderboardIndex.version();
+        CachedBoard cached;
+        synchronized (boards) {
+            cached = boards.get(key);
+        }
+        if (cached != null && cached.version == version) {
+            return cached;
+        }
+
+        List<LeaderboardEntry> entries = numDecks != null
+                ? leaderboardIndex.topForDifficulty(numDecks, limit, null)
+                : leaderboardIndex.top(window, limit, null);
+        CachedBoard built = CachedBoard.of(objectMapper, version, key, entries);
+        if (CACHED_LIMITS.contains(limit)) {
+            synchronized (boards) {
+                boards.put(key, built);
+            }
+        }
+        return built;
+    }
+
+    /** One serialized board, and where each entry's {@code currentUser} value starts. */
+    public static final class CachedBoard {
+        private final long version;
+        private final String etag;
+        private final byte[] json;
+        private final Map<String, Integer> flagOffsets;
+        private final Map<String, Integer> positions;
+
+        private CachedBoard(long version, String etag, byte[] json,
+                            Map<String, Integer> flagOffsets, Map<String, Integer> positions) {
+            this.version = version;
+            this.etag = etag;
+            this.json = json;
+            this.flagOffsets = flagOffsets;
+            this.positions = positions;
+        }
+
+        static CachedBoard of(ObjectMapper objectMapper, long version, String key, List<LeaderboardEntry> entries) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Map<String, Integer> flagOffsets = new HashMap<>();
+            Map<String, Integer> positions = new HashMap<>();
+            out.write('[');
+            for (int i = 0; i < entries.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                byte[] entry;
+                try {
+                    entry = objectMapper.writeValueAsBytes(entries.get(i));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Could not serialize leaderboard entry", e);
+                }
+                // Last occurrence: string values come earlier and cannot hold an unescaped quote
+                int flag = lastIndexOf(entry, FLAG_OFF);
+                if (flag < 0) {
+                    throw new IllegalStateException("LeaderboardEntry JSON has no currentUser flag");
+                }
+                String username = entries.get(i).getUsername();
+                flagOffsets.put(username, out.size() + flag + FLAG_OFF.length - "false".length());
+                positions.put(username, i);
+                out.write(entry, 0, entry.length);
+            }
+            out.write(']');
+            return new CachedBoard(version, "\"lb-" + version + "-" + key + "\"", out.toByteArray(),
+                    flagOffsets, positions);
+        }
+
+        /** ETag of the body {@link #bodyFor} returns for this viewer. */
+        public String etagFor(String username) {
+            Integer position = username != null ? positions.get(username) : null;
+            return position == null ? etag : etag.substring(0, etag.length() - 1) + "-" + position + "\"";
+        }
+
+        /** The shared bytes, or a copy with {@code currentUser} true on the viewer's entry. */
+        public byte[] bodyFor(String username) {
+            Integer offset = username != null ? flagOffsets.get(username) : null;
+            if (offset == null) {
+                return json;
+            }
+            int rest = offset + "false".length();
+            byte[] body = new byte[json.length - 1];
+            System.arraycopy(json, 0, body, 0, offset);
+            System.arraycopy(TRUE, 0, body, offset, TRUE.length);
+            System.arraycopy(json, rest, body, offset + TRUE.length, json.length - rest);
+            return body;
+        }
+
+        private static int lastIndexOf(byte[] bytes, byte[] pattern) {
+            outer:
+            for (int i = bytes.length - pattern.length; i >= 0; i--) {
+                for (int j = 0; j < pattern.length; j++) {
+                    if (bytes[i + j] != pattern[j]) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.cardgame.backend.leaderboard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Treap of (score, id) keys, ordered by score descending and then id ascending, with subtree
+ * sizes so positions can be found and selected in O(log n). Not thread-safe.
+ */
+class OrderStatisticTree {
+
+    private static final class Node {
+        final int score;
+        final long id;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(int score, long id, int priority) {
+            this.score = score;
+            this.id = id;
+            this.priority = priority;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    public int size() {
+        return size(root);
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    public void insert(int score, long id) {
+        root = insert(root, new Node(score, id, random.nextInt()));
+    }
+
+    /** Removes the key if present; returns whether it was found. */
+    public boolean remove(int score, long id) {
+        int before = size(root);
+        root = remove(root, score, id);
+        return size(root) < before;
+    }
+
+    /** Number of keys ordered before (score, id), i.e. its 0-based position once inserted. */
+    public int countBefore(int score, long id) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (compare(score, id, node) <= 0) {
+                node = node.left;
+            } else {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /** Number of keys with a strictly higher score. */
+    public int countHigher(int score) {
+        return countBefore(score, Long.MIN_VALUE);
+    }
+
+    /** Ids at positions [from, from + count) in order. */
+    public List<Long> range(int from, int count) {
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(count, size(root) - from)));
+        collect(root, from, from + count, 0, ids);
+        return ids;
+    }
+
+    private static void collect(Node node, int from, int to, int offset, List<Long> out) {
+        if (node == null || offset >= to || offset + node.size <= from) {
+            return;
+        }
+        collect(node.left, from, to, offset, out);
+        int index = offset + size(node.left);
+        if (index >= from && index < to) {
+            out.add(node.id);
+        }
+        collect(node.right, from, to, index + 1, out);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            Node[] parts = split(node, added.score, added.id);
+            added.left = parts[0];
+            added.right = parts[1];
+            update(added);
+            return added;
+        }
+        if (compare(added.score, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node remove(Node node, int score, long id) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(score, id, node);
+        if (c == 0) {
+            return merge(node.left, node.right);
+        }
+        if (c < 0) {
+            node.left = remove(node.left, score, id);
+        } else {
+            node.right = remove(node.right, score, id);
+        }
+        update(node);
+        return node;
+    }
+
+    /** Splits into keys ordered before (score, id) and the rest. */
+    private static Node[] split(Node node, int score, long id) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (compare(score, id, node) <= 0) {
+            Node[] parts = split(node.left, score, id);
+            node.left = parts[1];
+            update(node);
+            return new Node[]{parts[0], node};
+        }
+        Node[] parts = split(node.right, score, id);
+        node.right = parts[0];
+        update(node);
+        return new Node[]{node, parts[1]};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static int compare(int score, long id, Node node) {
+        if (score != node.score) {
+            return score > node.score ? -1 : 1;
+        }
+        return Long.compare(id, node.id);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+}
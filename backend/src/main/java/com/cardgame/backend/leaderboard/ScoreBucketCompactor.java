@@ -0,0 +1,41 @@
+package com.cardgame.backend.leaderboard;
+
+import com.cardgame.backend.model.ScorePeriod;
+import com.cardgame.backend.repository.ScoreBucketRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Deletes day and week buckets of periods long past. Only the current period of each window
+ * is ever ranked; a few old ones are kept for reference.
+ */
+@Component
+public class ScoreBucketCompactor {
+
+    @Autowired
+    private ScoreBucketRepository scoreBucketRepository;
+
+    @Value("${leaderboard.buckets.daily-retention-days:14}")
+    private int dailyRetentionDays;
+
+    @Value("${leaderboard.buckets.weekly-retention-weeks:8}")
+    private int weeklyRetentionWeeks;
+
+    @Scheduled(cron = "${leaderboard.buckets.compaction-cron:0 30 3 * * *}")
+    public void compact() {
+        try {
+            LocalDate today = LocalDate.now();
+            int daily = scoreBucketRepository.deleteOlderThan(ScorePeriod.DAILY,
+                    ScorePeriod.DAILY.startOf(today).minusDays(dailyRetentionDays));
+            int weekly = scoreBucketRepository.deleteOlderThan(ScorePeriod.WEEKLY,
+                    ScorePeriod.WEEKLY.startOf(today).minusWeeks(weeklyRetentionWeeks));
+            System.out.println("Score buckets compacted: " + daily + " daily, " + weekly + " weekly");
+        } catch (Exception e) {
+            System.err.println("Score bucket compaction failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.cardgame.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Running totals of a user's games at one difficulty (number of decks).
+ */
+@Embeddable
+public class DeckStats {
+
+    @Column(nullable = false)
+    private long gamesPlayed;
+
+    @Column(nullable = false)
+    private long gamesWon;
+
+    @Column(nullable = false)
+    private long scoreSum;
+
+    // Best single game; null until the first one, or on rows written before it was kept
+    // (UserStatsBackfill fills those in)
+    @Column
+    private Integer bestScore;
+
+    public void record(boolean won, int score) {
+        // A missing best with games already played is unknown, not zero: leave it for the backfill
+        if (bestScore != null ? score > bestScore : gamesPlayed == 0) {
+            bestScore = score;
+        }
+        gamesPlayed++;
+        if (won) {
+            gamesWon++;
+        }
+        scoreSum += score;
+    }
+
+    void add(long games, long wins, long scores, int best) {
+        gamesPlayed += games;
+        gamesWon += wins;
+        scoreSum += scores;
+        bestScore = bestScore != null ? Math.max(bestScore, best) : best;
+    }
+
+    void copyFrom(DeckStats other) {
+        gamesPlayed = other.gamesPlayed;
+        gamesWon = other.gamesWon;
+        scoreSum = other.scoreSum;
+        bestScore = other.bestScore;
+    }
+
+    // Getters
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public long getGamesWon() {
+        return gamesWon;
+    }
+
+    public long getScoreSum() {
+        return scoreSum;
+    }
+
+    public Integer getBestScore() {
+        return bestScore;
+    }
+}
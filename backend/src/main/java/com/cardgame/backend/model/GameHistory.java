@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "game_history")
+@Table(name = "game_history", indexes = {
+        // Keyset pages of a user's history, newest first
+        @Index(name = "idx_game_history_user_played", columnList = "user_id, played_at, id")
+})
 public class GameHistory {
 
     @Id
@@ -26,6 +29,12 @@ public class GameHistory {
 
     private Long durationSeconds; // Optional: how long the game took
 
+    // Shuffle seed and move log of the server-side game, enough to replay it exactly
+    private Long seed;
+
+    @Column(length = 128)
+    private String moves;
+
     // Constructors
     public GameHistory() {
         this.playedAt = LocalDateTime.now();
@@ -95,4 +104,20 @@ public class GameHistory {
     public void setDurationSeconds(Long durationSeconds) {
         this.durationSeconds = durationSeconds;
     }
-}
\ No newline at end of file
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public String getMoves() {
+        return moves;
+    }
+
+    public void setMoves(String moves) {
+        this.moves = moves;
+    }
+}
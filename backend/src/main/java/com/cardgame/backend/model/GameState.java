@@ -1,48 +1,349 @@
 package com.cardgame.backend.model;
 
+import com.cardgame.backend.engine.Cards;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class GameState {
-    private HashMap<String, ArrayList<String>> remainingCards;
-    private List<String> deckValues;  // Current top card of each deck
+    private static final int MAX_MOVES = Cards.DECK_SIZE;
+
+    private String gameId;
+    private String owner;         // Username of the player who started the game
+    private Long storeVersion;    // Row version when loaded from a persistent GameStore
+    private long seed;            // Shuffle seed; with the move log it replays the game exactly
+    private byte[] drawOrder;     // Deck order produced by the seed
+    private int cursor;           // Next position in drawOrder
+    private byte[] moves;         // One byte per guess that drew a card (see recordMove)
+    private int moveCount;
+    private long remainingMask;   // Bit per card still in the deck (see Cards)
+    private byte[] rankPrefix;    // rankPrefix[r] = remaining cards with rank <= r
+    private byte[] pileTops;      // Card code on top of each deck, Cards.NONE when eliminated
+    private int activePiles;
     private int numDecks;
+    private int winStreak;        // Owner's win streak when the game started
     private int score;
     private boolean gameOver;
     private boolean won;
-    private String message;
+    private String message;       // Built lazily from the last move (see getMessage)
+    private GuessResult lastResult;
+    private int lastDeck = -1;     // 0-based deck of the last move
+    private byte lastCard = Cards.NONE;
+    private int lastStreak;
+    private double lastStreakMultiplier;
+    private int lastBonus;
+    // Held while a request reads or changes the game. A lock rather than the object's monitor:
+    // a virtual thread holding it across a store write must not pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
 
     public GameState() {
-        this.remainingCards = new HashMap<>();
-        this.deckValues = new ArrayList<>();
+        this(0, 0L);
+    }
+
+    public GameState(int numDecks, long seed) {
+        this.numDecks = numDecks;
+        this.seed = seed;
+        this.drawOrder = Cards.shuffledDeck(seed);
+        this.cursor = 0;
+        this.moves = new byte[MAX_MOVES];
+        this.moveCount = 0;
+        this.remainingMask = Cards.FULL_DECK;
+        this.rankPrefix = new byte[Cards.RANKS + 1];
+        for (int rank = 1; rank <= Cards.RANKS; rank++) {
+            this.rankPrefix[rank] = (byte) (rank * Cards.SUITS);
+        }
+        this.pileTops = new byte[numDecks];
+        Arrays.fill(this.pileTops, Cards.NONE);
+        this.activePiles = 0;
         this.gameOver = false;
         this.won = false;
     }
 
-    // Getters and Setters
-    public HashMap<String, ArrayList<String>> getRemainingCards() {
-        return remainingCards;
+    // Field-by-field copy for copy(); skips the shuffle the public constructors do
+    private GameState(GameState source) {
+        this.gameId = source.gameId;
+        this.owner = source.owner;
+        this.storeVersion = source.storeVersion;
+        this.seed = source.seed;
+        this.drawOrder = source.drawOrder;
+        this.cursor = source.cursor;
+        this.moves = source.moves.clone();
+        this.moveCount = source.moveCount;
+        this.remainingMask = source.remainingMask;
+        this.rankPrefix = source.rankPrefix.clone();
+        this.pileTops = source.pileTops.clone();
+        this.activePiles = source.activePiles;
+        this.numDecks = source.numDecks;
+        this.winStreak = source.winStreak;
+        this.score = source.score;
+        this.gameOver = source.gameOver;
+        this.won = source.won;
+        this.message = source.message;
+        this.lastResult = source.lastResult;
+        this.lastDeck = source.lastDeck;
+        this.lastCard = source.lastCard;
+        this.lastStreak = source.lastStreak;
+        this.lastStreakMultiplier = source.lastStreakMultiplier;
+        this.lastBonus = source.lastBonus;
+    }
+
+    /**
+     * Independent snapshot of this game, e.g. to report intermediate states of a batch.
+     * The shuffled deck order is immutable and shared.
+     */
+    public GameState copy() {
+        return new GameState(this);
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+
+    @JsonIgnore
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    @JsonIgnore
+    public Long getStoreVersion() {
+        return storeVersion;
+    }
+
+    public void setStoreVersion(Long storeVersion) {
+        this.storeVersion = storeVersion;
+    }
+
+    // Engine accessors (not part of the JSON payload)
+    @JsonIgnore
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Takes the next card of the shuffled deck, or {@link Cards#NONE} when it is exhausted. */
+    public int drawNextCard() {
+        if (cursor >= drawOrder.length) {
+            return Cards.NONE;
+        }
+        int card = drawOrder[cursor++];
+        removeCard(card);
+        return card;
+    }
+
+    /** Records a guess that drew a card, as deck index and 'h', 'l' or '?'. */
+    public void recordMove(int pile, char guess) {
+        int code = guess == 'h' ? 1 : guess == 'l' ? 2 : 0;
+        moves[moveCount++] = (byte) (pile << 2 | code);
+    }
+
+    @JsonIgnore
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /** Raw encoded move {@code i}: deck index in the high bits, guess in the low two. */
+    public byte getMove(int i) {
+        return moves[i];
+    }
+
+    /** Appends an already-encoded move, used when restoring a stored game. */
+    public void restoreMove(byte move) {
+        moves[moveCount++] = move;
+    }
+
+    /**
+     * Compact text form of the guesses made so far: two characters per move, the deck
+     * index (0-9) followed by 'h', 'l' or '?'. E.g. "2h0l5h".
+     */
+    @JsonIgnore
+    public String getMoveLog() {
+        char[] log = new char[moveCount * 2];
+        for (int i = 0; i < moveCount; i++) {
+            int move = moves[i];
+            log[2 * i] = (char) ('0' + (move >> 2));
+            log[2 * i + 1] = "?hl".charAt(move & 3);
+        }
+        return new String(log);
+    }
+
+    @JsonIgnore
+    public long getRemainingMask() {
+        return remainingMask;
+    }
+
+    @JsonIgnore
+    public int getRemainingCount() {
+        return Long.bitCount(remainingMask);
+    }
+
+    public void removeCard(int card) {
+        remainingMask &= ~(1L << card);
+        for (int rank = Cards.rank(card); rank <= Cards.RANKS; rank++) {
+            rankPrefix[rank]--;
+        }
+    }
+
+    /** Remaining cards ranked strictly below {@code rank}. */
+    public int countBelow(int rank) {
+        return rankPrefix[rank - 1];
+    }
+
+    /** Remaining cards of exactly {@code rank}. */
+    public int countOfRank(int rank) {
+        return rankPrefix[rank] - rankPrefix[rank - 1];
+    }
+
+    /** Remaining cards ranked strictly above {@code rank}. */
+    public int countAbove(int rank) {
+        return rankPrefix[Cards.RANKS] - rankPrefix[rank];
+    }
+
+    public int getPileTop(int pile) {
+        return pileTops[pile];
+    }
+
+    public void setPileTop(int pile, int card) {
+        if (pileTops[pile] == Cards.NONE && card != Cards.NONE) {
+            activePiles++;
+        } else if (pileTops[pile] != Cards.NONE && card == Cards.NONE) {
+            activePiles--;
+        }
+        pileTops[pile] = (byte) card;
     }
 
-    public void setRemainingCards(HashMap<String, ArrayList<String>> remainingCards) {
-        this.remainingCards = remainingCards;
+    @JsonIgnore
+    public int getActivePiles() {
+        return activePiles;
+    }
+
+    /**
+     * Records the outcome of a guess. The human-readable message is only formatted if
+     * someone asks for it, so compact responses never pay for it.
+     */
+    public void recordResult(GuessResult result, int deck, int card, int streak,
+                             double streakMultiplier, int bonus) {
+        if (result == GuessResult.GAME_OVER) {
+            getMessage(); // Keep the final message; a late guess does not change it
+        } else {
+            message = null;
+        }
+        lastResult = result;
+        lastDeck = deck;
+        lastCard = (byte) card;
+        lastStreak = streak;
+        lastStreakMultiplier = streakMultiplier;
+        lastBonus = bonus;
+    }
+
+    @JsonIgnore
+    public GuessResult getLastResult() {
+        return lastResult;
+    }
+
+    @JsonIgnore
+    public int getLastDeck() {
+        return lastDeck;
+    }
+
+    @JsonIgnore
+    public int getLastCard() {
+        return lastCard;
+    }
+
+    private String describeLastMove() {
+        String card = Cards.name(lastCard);
+        int deckNumber = lastDeck + 1;
+        switch (lastResult) {
+            case CORRECT:
+                return String.format(
+                        "✅ Correct! New card: %s | Score: %d | Win Streak: %d (%.2fx multiplier)",
+                        card, score, lastStreak, lastStreakMultiplier);
+            case WRONG:
+                return String.format(
+                        "❌ Wrong! Card: %s | Deck %d eliminated | Score: %d",
+                        card, deckNumber, score);
+            case ALL_ELIMINATED:
+                return String.format(
+                        "❌ Wrong! Card: %s | Deck %d eliminated | Score: %d",
+                        card, deckNumber, score)
+                        + " | Game Over! All decks eliminated. Final score: " + score;
+            case VICTORY:
+                if (lastCard == Cards.NONE) {
+                    return String.format(
+                            "🎉 Victory! All cards guessed! Score: %d | Bonus: +%d 🎉",
+                            score, lastBonus);
+                }
+                if (pileTops[lastDeck] == lastCard) {
+                    return String.format(
+                            "🎉 Victory! Final card: %s | Score: %d | Win Streak: %d (%.2fx multiplier) | Victory Bonus: +%d 🎉",
+                            card, score, lastStreak, lastStreakMultiplier, lastBonus);
+                }
+                return String.format("🎉 Victory! Final card: %s | Score: %d 🎉", card, score);
+            case INVALID_DECK:
+                return "Invalid deck number";
+            case DECK_ELIMINATED:
+                return "Deck " + deckNumber + " is already eliminated. Choose another deck.";
+            default:
+                return null;
+        }
+    }
+
+    // JSON view: same shape the frontend has always received
+    public Map<String, List<String>> getRemainingCards() {
+        Map<String, List<String>> cards = new LinkedHashMap<>();
+        for (int suit = 0; suit < Cards.SUITS; suit++) {
+            List<String> list = null;
+            for (int rank = 1; rank <= Cards.RANKS; rank++) {
+                int card = Cards.code(suit, rank);
+                if (Cards.contains(remainingMask, card)) {
+                    if (list == null) {
+                        list = new ArrayList<>();
+                        cards.put(Cards.suitName(suit), list);
+                    }
+                    list.add(Cards.name(card));
+                }
+            }
+        }
+        return cards;
     }
 
     public List<String> getDeckValues() {
-        return deckValues;
+        List<String> values = new ArrayList<>(pileTops.length);
+        for (byte top : pileTops) {
+            values.add(Cards.name(top));
+        }
+        return values;
     }
 
-    public void setDeckValues(List<String> deckValues) {
-        this.deckValues = deckValues;
+    /** The lock guarding this game against concurrent requests; not part of its state. */
+    public ReentrantLock lock() {
+        return lock;
     }
 
+    // Getters and Setters
     public int getNumDecks() {
         return numDecks;
     }
 
-    public void setNumDecks(int numDecks) {
-        this.numDecks = numDecks;
+    @JsonIgnore
+    public int getWinStreak() {
+        return winStreak;
+    }
+
+    public void setWinStreak(int winStreak) {
+        this.winStreak = winStreak;
     }
 
     public int getScore() {
@@ -70,10 +371,13 @@ public class GameState {
     }
 
     public String getMessage() {
+        if (message == null && lastResult != null) {
+            message = describeLastMove();
+        }
         return message;
     }
 
     public void setMessage(String message) {
         this.message = message;
     }
-}
\ No newline at end of file
+}
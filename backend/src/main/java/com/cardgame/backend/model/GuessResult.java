@@ -0,0 +1,14 @@
+package com.cardgame.backend.model;
+
+/**
+ * Structured outcome of a guess, used by compact responses in place of the formatted message.
+ */
+public enum GuessResult {
+    CORRECT,            // Card drawn, guess right, pile continues
+    WRONG,              // Card drawn, guess wrong, pile eliminated
+    ALL_ELIMINATED,     // Wrong guess eliminated the last pile: game lost
+    VICTORY,            // Deck exhausted: game won
+    INVALID_DECK,       // Deck number out of range, nothing drawn
+    DECK_ELIMINATED,    // Deck already eliminated, nothing drawn
+    GAME_OVER           // Game already finished, nothing drawn
+}
@@ -0,0 +1,76 @@
+package com.cardgame.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Score a user made during one day or week, kept up to date as games are saved so
+ * windowed leaderboards never have to group game_history.
+ */
+@Entity
+@Table(name = "score_buckets",
+        uniqueConstraints = @UniqueConstraint(name = "uk_score_buckets_user_period",
+                columnNames = {"user_id", "period_type", "period_start"}),
+        indexes = @Index(name = "idx_score_buckets_period", columnList = "period_type, period_start"))
+public class ScoreBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period_type", length = 10, nullable = false)
+    private ScorePeriod periodType;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(nullable = false)
+    private int score;
+
+    @Column(name = "games_played", nullable = false)
+    private int gamesPlayed;
+
+    public ScoreBucket() {
+    }
+
+    public ScoreBucket(Long userId, ScorePeriod periodType, LocalDate periodStart) {
+        this.userId = userId;
+        this.periodType = periodType;
+        this.periodStart = periodStart;
+    }
+
+    public void add(int score) {
+        this.score += score;
+        gamesPlayed++;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public ScorePeriod getPeriodType() {
+        return periodType;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+}
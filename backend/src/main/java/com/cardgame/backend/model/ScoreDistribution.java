@@ -0,0 +1,55 @@
+package com.cardgame.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Periodic snapshot of one in-memory score histogram ({@code ScoreDistributions}), so a
+ * restart only has to replay the games saved since.
+ */
+@Entity
+@Table(name = "score_distributions")
+public class ScoreDistribution {
+
+    // "all", or the deck count of a per-difficulty histogram
+    @Id
+    @Column(length = 8)
+    private String scope;
+
+    @Column(nullable = false, length = 16384)
+    private byte[] counts;
+
+    // Highest game_history id included in counts
+    @Column(name = "last_game_id", nullable = false)
+    private long lastGameId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public ScoreDistribution() {}
+
+    public ScoreDistribution(String scope, byte[] counts, long lastGameId) {
+        this.scope = scope;
+        this.counts = counts;
+        this.lastGameId = lastGameId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public String getScope() {
+        return scope;
+    }
+
+    public byte[] getCounts() {
+        return counts;
+    }
+
+    public long getLastGameId() {
+        return lastGameId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
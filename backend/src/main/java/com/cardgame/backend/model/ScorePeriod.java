@@ -0,0 +1,18 @@
+package com.cardgame.backend.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Leaderboard time windows. Weeks start on Monday.
+ */
+public enum ScorePeriod {
+    DAILY,
+    WEEKLY;
+
+    /** First day of the period that contains {@code date}. */
+    public LocalDate startOf(LocalDate date) {
+        return this == DAILY ? date : date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
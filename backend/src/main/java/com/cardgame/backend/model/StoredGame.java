@@ -0,0 +1,67 @@
+package com.cardgame.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * An in-progress game persisted by {@code JdbcGameStore}, encoded with {@code GameStateCodec}.
+ */
+@Entity
+@Table(name = "game_states", indexes = @Index(name = "idx_game_states_updated_at", columnList = "updated_at"))
+public class StoredGame {
+
+    @Id
+    @Column(name = "game_id", length = 36)
+    private String gameId;
+
+    @Version
+    private Long version;
+
+    @Column(nullable = false, length = 1024)
+    private byte[] state;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public StoredGame() {}
+
+    public StoredGame(String gameId, byte[] state) {
+        this.gameId = gameId;
+        this.state = state;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public byte[] getState() {
+        return state;
+    }
+
+    public void setState(byte[] state) {
+        this.state = state;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -8,7 +8,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Serves the leaderboard's keyset pages (see UserRepository.findLeaderboardPageAfter)
+        @Index(name = "idx_users_leaderboard", columnList = "is_guest, best_score DESC, id")
+})
 public class User {
 
     @Id
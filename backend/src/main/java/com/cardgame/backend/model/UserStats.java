@@ -0,0 +1,186 @@
+package com.cardgame.backend.model;
+
+import jakarta.persistence.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user aggregate of {@link GameHistory}, kept up to date as games are saved so stats
+ * are a single primary-key read however long a player's history is.
+ */
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+
+    public static final int MIN_DECKS = 6;
+    public static final int MAX_DECKS = 10;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "games_played", nullable = false)
+    private long gamesPlayed;
+
+    @Column(name = "games_won", nullable = false)
+    private long gamesWon;
+
+    @Column(name = "score_sum", nullable = false)
+    private long scoreSum;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "gamesPlayed", column = @Column(name = "decks6_games_played", nullable = false)),
+            @AttributeOverride(name = "gamesWon", column = @Column(name = "decks6_games_won", nullable = false)),
+            @AttributeOverride(name = "scoreSum", column = @Column(name = "decks6_score_sum", nullable = false)),
+            @AttributeOverride(name = "bestScore", column = @Column(name = "decks6_best_score"))
+    })
+    private DeckStats decks6 = new DeckStats();
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "gamesPlayed", column = @Column(name = "decks7_games_played", nullable = false)),
+            @AttributeOverride(name = "gamesWon", column = @Column(name = "decks7_games_won", nullable = false)),
+            @AttributeOverride(name = "scoreSum", column = @Column(name = "decks7_score_sum", nullable = false)),
+            @AttributeOverride(name = "bestScore", column = @Column(name = "decks7_best_score"))
+    })
+    private DeckStats decks7 = new DeckStats();
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "gamesPlayed", column = @Column(name = "decks8_games_played", nullable = false)),
+            @AttributeOverride(name = "gamesWon", column = @Column(name = "decks8_games_won", nullable = false)),
+            @AttributeOverride(name = "scoreSum", column = @Column(name = "decks8_score_sum", nullable = false)),
+            @AttributeOverride(name = "bestScore", column = @Column(name = "decks8_best_score"))
+    })
+    private DeckStats decks8 = new DeckStats();
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "gamesPlayed", column = @Column(name = "decks9_games_played", nullable = false)),
+            @AttributeOverride(name = "gamesWon", column = @Column(name = "decks9_games_won", nullable = false)),
+            @AttributeOverride(name = "scoreSum", column = @Column(name = "decks9_score_sum", nullable = false)),
+            @AttributeOverride(name = "bestScore", column = @Column(name = "decks9_best_score"))
+    })
+    private DeckStats decks9 = new DeckStats();
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "gamesPlayed", column = @Column(name = "decks10_games_played", nullable = false)),
+            @AttributeOverride(name = "gamesWon", column = @Column(name = "decks10_games_won", nullable = false)),
+            @AttributeOverride(name = "scoreSum", column = @Column(name = "decks10_score_sum", nullable = false)),
+            @AttributeOverride(name = "bestScore", column = @Column(name = "decks10_best_score"))
+    })
+    private DeckStats decks10 = new DeckStats();
+
+    public UserStats() {
+    }
+
+    public UserStats(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Builds the aggregate from grouped history rows of
+     * {@code [numDecks, games, wins, scoreSum, bestScore]}, as returned by
+     * {@code GameHistoryRepository.aggregateByDecks}.
+     */
+    public static UserStats fromAggregates(Long userId, List<Object[]> rows) {
+        UserStats stats = new UserStats(userId);
+        for (Object[] row : rows) {
+            int numDecks = ((Number) row[0]).intValue();
+            long games = ((Number) row[1]).longValue();
+            long wins = ((Number) row[2]).longValue();
+            long scores = ((Number) row[3]).longValue();
+            int best = ((Number) row[4]).intValue();
+            stats.gamesPlayed += games;
+            stats.gamesWon += wins;
+            stats.scoreSum += scores;
+            DeckStats deck = stats.getDeckStats(numDecks);
+            if (deck != null) {
+                deck.add(games, wins, scores, best);
+            }
+        }
+        return stats;
+    }
+
+    /** Adds one finished game to the totals. */
+    public void record(int numDecks, boolean won, int score) {
+        gamesPlayed++;
+        if (won) {
+            gamesWon++;
+        }
+        scoreSum += score;
+        DeckStats deck = getDeckStats(numDecks);
+        if (deck != null) {
+            deck.record(won, score);
+        }
+    }
+
+    /** A detached copy, e.g. to add games that are not stored yet without touching the entity. */
+    public UserStats copy() {
+        UserStats copy = new UserStats(userId);
+        copy.gamesPlayed = gamesPlayed;
+        copy.gamesWon = gamesWon;
+        copy.scoreSum = scoreSum;
+        for (int numDecks = MIN_DECKS; numDecks <= MAX_DECKS; numDecks++) {
+            copy.getDeckStats(numDecks).copyFrom(getDeckStats(numDecks));
+        }
+        return copy;
+    }
+
+    /** True for rows written before best scores were kept, until the backfill rebuilds them. */
+    public boolean isMissingBestScores() {
+        for (int numDecks = MIN_DECKS; numDecks <= MAX_DECKS; numDecks++) {
+            DeckStats deck = getDeckStats(numDecks);
+            if (deck.getGamesPlayed() > 0 && deck.getBestScore() == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Totals for one difficulty, or null outside {@value #MIN_DECKS}-{@value #MAX_DECKS} decks. */
+    public DeckStats getDeckStats(int numDecks) {
+        switch (numDecks) {
+            case 6: return decks6;
+            case 7: return decks7;
+            case 8: return decks8;
+            case 9: return decks9;
+            case 10: return decks10;
+            default: return null;
+        }
+    }
+
+    /** Totals keyed by number of decks, 6 to 10. */
+    public Map<Integer, DeckStats> getDeckBreakdown() {
+        Map<Integer, DeckStats> breakdown = new LinkedHashMap<>();
+        for (int numDecks = MIN_DECKS; numDecks <= MAX_DECKS; numDecks++) {
+            breakdown.put(numDecks, getDeckStats(numDecks));
+        }
+        return breakdown;
+    }
+
+    public Double getAverageScore() {
+        return gamesPlayed > 0 ? (double) scoreSum / gamesPlayed : null;
+    }
+
+    // Getters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public long getGamesWon() {
+        return gamesWon;
+    }
+
+    public long getScoreSum() {
+        return scoreSum;
+    }
+}
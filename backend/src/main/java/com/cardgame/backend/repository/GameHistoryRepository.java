@@ -3,13 +3,14 @@ package com.cardgame.backend.repository;
 import com.cardgame.backend.model.GameHistory;
 import com.cardgame.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface GameHistoryRepository extends JpaRepository<GameHistory, Long> {
+public interface GameHistoryRepository extends JpaRepository<GameHistory, Long>, GameHistoryRepositoryCustom {
 
     // Get user's game history, ordered by most recent
     List<GameHistory> findByUserOrderByPlayedAtDesc(User user);
@@ -39,4 +40,21 @@ public interface GameHistoryRepository extends JpaRepository<GameHistory, Long>
     @Query("SELECT COUNT(DISTINCT g.user) FROM GameHistory g WHERE g.score > " +
             "(SELECT MAX(gh.score) FROM GameHistory gh WHERE gh.user = :user)")
     Long getUserRank(User user);
-}
\ No newline at end of file
+
+    // Per-difficulty totals of one user as [numDecks, games, wins, scoreSum, bestScore] (see UserStats)
+    @Query("SELECT g.numDecks, COUNT(g), SUM(CASE WHEN g.won = true THEN 1 ELSE 0 END), SUM(g.score), MAX(g.score) " +
+            "FROM GameHistory g WHERE g.user.id = :userId GROUP BY g.numDecks")
+    List<Object[]> aggregateByDecks(Long userId);
+
+    // Users with saved games but no user_stats row yet, for the backfill
+    @Query("SELECT DISTINCT g.user.id FROM GameHistory g " +
+            "WHERE NOT EXISTS (SELECT s FROM UserStats s WHERE s.userId = g.user.id)")
+    List<Long> findUserIdsWithoutStats();
+
+    @Query("SELECT COALESCE(MAX(g.id), 0) FROM GameHistory g")
+    long findMaxId();
+
+    // Rows of [id, numDecks, score] after afterId, for replaying games into the score histograms
+    @Query("SELECT g.id, g.numDecks, g.score FROM GameHistory g WHERE g.id > :afterId AND g.id <= :upToId ORDER BY g.id")
+    List<Object[]> findScoresAfter(long afterId, long upToId, Limit limit);
+}
@@ -0,0 +1,23 @@
+package com.cardgame.backend.repository;
+
+import com.cardgame.backend.dto.GameHistoryResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Queries on {@link com.cardgame.backend.model.GameHistory} built at runtime, implemented
+ * in {@link GameHistoryRepositoryImpl}.
+ */
+public interface GameHistoryRepositoryCustom {
+
+    /**
+     * One page of a user's games, newest first (played_at desc, id desc), projected straight
+     * into {@link GameHistoryResponse}. Rows after the keyset ({@code afterPlayedAt},
+     * {@code afterId}) when it is given; {@code numDecks}, {@code from} (inclusive) and
+     * {@code to} (exclusive) are optional filters.
+     */
+    List<GameHistoryResponse> findHistoryPage(Long userId, Integer numDecks,
+                                              LocalDateTime from, LocalDateTime to,
+                                              LocalDateTime afterPlayedAt, Long afterId, int limit);
+}
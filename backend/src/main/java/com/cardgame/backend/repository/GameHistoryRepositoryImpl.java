@@ -0,0 +1,55 @@
+package com.cardgame.backend.repository;
+
+import com.cardgame.backend.dto.GameHistoryResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class GameHistoryRepositoryImpl implements GameHistoryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<GameHistoryResponse> findHistoryPage(Long userId, Integer numDecks,
+                                                     LocalDateTime from, LocalDateTime to,
+                                                     LocalDateTime afterPlayedAt, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new com.cardgame.backend.dto.GameHistoryResponse(" +
+                        "g.id, g.score, g.numDecks, g.won, g.playedAt, g.durationSeconds) " +
+                        "FROM GameHistory g WHERE g.user.id = :userId");
+        if (numDecks != null) {
+            jpql.append(" AND g.numDecks = :numDecks");
+        }
+        if (from != null) {
+            jpql.append(" AND g.playedAt >= :from");
+        }
+        if (to != null) {
+            jpql.append(" AND g.playedAt < :to");
+        }
+        if (afterPlayedAt != null) {
+            jpql.append(" AND (g.playedAt < :afterPlayedAt OR (g.playedAt = :afterPlayedAt AND g.id < :afterId))");
+        }
+        jpql.append(" ORDER BY g.playedAt DESC, g.id DESC");
+
+        TypedQuery<GameHistoryResponse> query = entityManager.createQuery(jpql.toString(), GameHistoryResponse.class);
+        query.setParameter("userId", userId);
+        if (numDecks != null) {
+            query.setParameter("numDecks", numDecks);
+        }
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        if (afterPlayedAt != null) {
+            query.setParameter("afterPlayedAt", afterPlayedAt);
+            query.setParameter("afterId", afterId);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
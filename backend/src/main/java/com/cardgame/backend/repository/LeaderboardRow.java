@@ -0,0 +1,20 @@
+package com.cardgame.backend.repository;
+
+/**
+ * Projection of the user columns the leaderboard shows, so pages never build full
+ * {@code User} entities.
+ */
+public interface LeaderboardRow {
+
+    Long getId();
+
+    String getUsername();
+
+    Integer getBestScore();
+
+    Integer getLongestWinStreak();
+
+    String getAvatar();
+
+    Boolean getStatsPublic();
+}
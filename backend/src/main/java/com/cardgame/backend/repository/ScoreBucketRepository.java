@@ -0,0 +1,28 @@
+package com.cardgame.backend.repository;
+
+import com.cardgame.backend.model.ScoreBucket;
+import com.cardgame.backend.model.ScorePeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ScoreBucketRepository extends JpaRepository<ScoreBucket, Long> {
+
+    List<ScoreBucket> findByPeriodTypeAndPeriodStart(ScorePeriod periodType, LocalDate periodStart);
+
+    List<ScoreBucket> findByPeriodTypeAndPeriodStartAndUserIdIn(ScorePeriod periodType, LocalDate periodStart,
+                                                                Collection<Long> userIds);
+
+    // Compaction of windows nobody can query any more
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ScoreBucket b WHERE b.periodType = :periodType AND b.periodStart < :cutoff")
+    int deleteOlderThan(ScorePeriod periodType, LocalDate cutoff);
+}
@@ -0,0 +1,9 @@
+package com.cardgame.backend.repository;
+
+import com.cardgame.backend.model.ScoreDistribution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScoreDistributionRepository extends JpaRepository<ScoreDistribution, String> {
+}
@@ -0,0 +1,26 @@
+package com.cardgame.backend.repository;
+
+import com.cardgame.backend.model.StoredGame;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface StoredGameRepository extends JpaRepository<StoredGame, String> {
+
+    // Conditional write: only succeeds if nobody saved the game since it was read
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredGame s SET s.state = :state, s.version = s.version + 1, s.updatedAt = :updatedAt " +
+            "WHERE s.gameId = :gameId AND s.version = :version")
+    int updateIfVersion(String gameId, long version, byte[] state, LocalDateTime updatedAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StoredGame s WHERE s.updatedAt < :cutoff")
+    int deleteIdleSince(LocalDateTime cutoff);
+}
@@ -1,10 +1,16 @@
 package com.cardgame.backend.repository;
 
 import com.cardgame.backend.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +19,50 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUsername(String username);
 
+    // Row-locked reads so concurrent saves of one user's games are applied one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(Long id);
+
+    /**
+     * Applies a run of finished games to a user in one statement, no entity load and no
+     * lost updates. The run is summarised as its score total, the wins before its first
+     * loss ({@code leadingWins}), the wins after its last loss ({@code trailingWins}), its
+     * longest run of wins and whether it had a loss at all. Every right-hand side reads the
+     * row's old values; longest_win_streak is listed first so the same holds on databases
+     * that assign left to right.
+     */
+    @Modifying
+    @Query(value = "UPDATE users SET " +
+            "best_score = COALESCE(best_score, 0) + :scoreSum, " +
+            "longest_win_streak = GREATEST(COALESCE(longest_win_streak, 0), " +
+            "COALESCE(current_win_streak, 0) + :leadingWins, :maxRun), " +
+            "current_win_streak = CASE WHEN :hadLoss THEN :trailingWins " +
+            "ELSE COALESCE(current_win_streak, 0) + :leadingWins END, " +
+            "best_score_decks = COALESCE(best_score_decks, :numDecks) " +
+            "WHERE id = :id", nativeQuery = true)
+    int applyResults(Long id, int scoreSum, int leadingWins, int trailingWins, int maxRun,
+                     boolean hadLoss, int numDecks);
+
+    // Profile and password changes touch only their own columns: saving a loaded User would
+    // write back its score and streaks too and undo an applyResults committed since the load
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.avatar = :avatar, u.theme = :theme, u.cardBack = :cardBack, " +
+            "u.statsPublic = :statsPublic WHERE u.id = :id")
+    int updateSettings(Long id, String avatar, String theme, String cardBack, Boolean statsPublic);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(Long id, String password);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.bestScore AS bestScore, " +
+            "u.currentWinStreak AS currentWinStreak, u.longestWinStreak AS longestWinStreak, " +
+            "u.avatar AS avatar, u.statsPublic AS statsPublic, u.isGuest AS guest " +
+            "FROM User u WHERE u.id IN :ids")
+    List<UserScoreRow> findScoreRows(Collection<Long> ids);
+
     Optional<User> findByEmail(String email);
 
     Boolean existsByUsername(String username);
@@ -30,4 +80,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // ✅ UPDATED: Get user's rank by counting users with higher scores
     @Query("SELECT COUNT(u) FROM User u WHERE u.bestScore > :bestScore AND u.isGuest = false")
     Long getUserRankByBestScore(int bestScore);
+
+    // Keyset pages of the leaderboard: ordered by best score desc, then id, LIMIT applied in the database
+    @Query("SELECT u.id AS id, u.username AS username, u.bestScore AS bestScore, " +
+            "u.longestWinStreak AS longestWinStreak, u.avatar AS avatar, u.statsPublic AS statsPublic " +
+            "FROM User u WHERE u.isGuest = false AND u.bestScore >= 0 " +
+            "ORDER BY u.bestScore DESC, u.id ASC")
+    List<LeaderboardRow> findLeaderboardFirstPage(Limit limit);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.bestScore AS bestScore, " +
+            "u.longestWinStreak AS longestWinStreak, u.avatar AS avatar, u.statsPublic AS statsPublic " +
+            "FROM User u WHERE u.isGuest = false AND u.bestScore >= 0 " +
+            "AND (u.bestScore < :afterScore OR (u.bestScore = :afterScore AND u.id > :afterId)) " +
+            "ORDER BY u.bestScore DESC, u.id ASC")
+    List<LeaderboardRow> findLeaderboardPageAfter(int afterScore, long afterId, Limit limit);
 }
\ No newline at end of file
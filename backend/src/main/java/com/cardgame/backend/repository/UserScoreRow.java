@@ -0,0 +1,12 @@
+package com.cardgame.backend.repository;
+
+/**
+ * Leaderboard columns plus the current streak and guest flag, read back after a game
+ * result has been applied to a user.
+ */
+public interface UserScoreRow extends LeaderboardRow {
+
+    Integer getCurrentWinStreak();
+
+    Boolean getGuest();
+}
@@ -0,0 +1,29 @@
+package com.cardgame.backend.repository;
+
+import com.cardgame.backend.model.UserStats;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    // Best single game per difficulty of non-guest users as [userId, best6, ..., best10], in user id order
+    @Query("SELECT s.userId, s.decks6.bestScore, s.decks7.bestScore, s.decks8.bestScore, " +
+            "s.decks9.bestScore, s.decks10.bestScore " +
+            "FROM UserStats s, User u WHERE u.id = s.userId AND u.isGuest = false AND s.userId > :afterUserId " +
+            "ORDER BY s.userId")
+    List<Object[]> findBestScoresAfter(long afterUserId, Limit limit);
+
+    // Rows with games at some difficulty but no best score for it, written before best scores were kept
+    @Query("SELECT s.userId FROM UserStats s WHERE " +
+            "(s.decks6.gamesPlayed > 0 AND s.decks6.bestScore IS NULL) OR " +
+            "(s.decks7.gamesPlayed > 0 AND s.decks7.bestScore IS NULL) OR " +
+            "(s.decks8.gamesPlayed > 0 AND s.decks8.bestScore IS NULL) OR " +
+            "(s.decks9.gamesPlayed > 0 AND s.decks9.bestScore IS NULL) OR " +
+            "(s.decks10.gamesPlayed > 0 AND s.decks10.bestScore IS NULL)")
+    List<Long> findUserIdsWithoutBestScores();
+}
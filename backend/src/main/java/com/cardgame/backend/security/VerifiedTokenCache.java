@@ -0,0 +1,110 @@
+package com.cardgame.backend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of JWTs whose signature has already been verified, mapped to the principal
+ * they authenticate. A hit skips both the HS512 check and the user lookup. Entries never
+ * outlive the token's own expiry.
+ * <p>
+ * Lookups are lock-free reads of a concurrent map. When a put takes it over its size, the
+ * expired entries go first, then the least recently used, down to 90% of the limit so the
+ * next trim is a while off.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    private final int maxTokens;
+    // Bumped by every put; a hit stamps its entry with the current value, so older stamps mean less recently used
+    private final AtomicLong clock = new AtomicLong();
+    // One trim at a time; other writers skip it rather than wait
+    private final Lock trimLock = new ReentrantLock();
+
+    public VerifiedTokenCache(@Value("${jwt.cache.size:10000}") int maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    /** The cached principal for {@code token}, or null if it is unknown or has expired. */
+    public UserDetailsImpl get(String token) {
+        Entry entry = tokens.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            tokens.remove(token, entry);
+            return null;
+        }
+        long now = clock.get();
+        if (entry.lastUsed != now) {
+            entry.lastUsed = now;
+        }
+        return entry.principal;
+    }
+
+    public void put(String token, UserDetailsImpl principal, long expiresAt) {
+        tokens.put(token, new Entry(principal, expiresAt, clock.incrementAndGet()));
+        if (tokens.size() > maxTokens) {
+            trim();
+        }
+    }
+
+    /** Drops every token of {@code username}, e.g. after its password changed. */
+    public void evictUser(String username) {
+        tokens.values().removeIf(entry -> entry.principal.getUsername().equals(username));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.cache.sweep-interval-ms:60000}")
+    public void evictExpiredTokens() {
+        long now = System.currentTimeMillis();
+        tokens.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    private void trim() {
+        if (!trimLock.tryLock()) {
+            return;
+        }
+        try {
+            evictExpiredTokens();
+            int target = maxTokens - maxTokens / 10;
+            if (tokens.size() <= target) {
+                return;
+            }
+            List<Map.Entry<String, Entry>> entries = new ArrayList<>(tokens.entrySet());
+            entries.sort(Comparator.comparingLong(e -> e.getValue().lastUsed));
+            int excess = entries.size() - target;
+            for (int i = 0; i < excess; i++) {
+                tokens.remove(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        final UserDetailsImpl principal;
+        final long expiresAt;
+        volatile long lastUsed;
+
+        Entry(UserDetailsImpl principal, long expiresAt, long lastUsed) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
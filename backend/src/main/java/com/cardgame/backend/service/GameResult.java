@@ -0,0 +1,11 @@
+package com.cardgame.backend.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished game waiting to be recorded. {@code seed} and {@code moves} are null when the
+ * server-side game was not found.
+ */
+public record GameResult(Long userId, int score, int numDecks, boolean won,
+                         Long seed, String moves, LocalDateTime playedAt) {
+}
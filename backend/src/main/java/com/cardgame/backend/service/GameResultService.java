@@ -0,0 +1,192 @@
+package com.cardgame.backend.service;
+
+import com.cardgame.backend.model.ScoreBucket;
+import com.cardgame.backend.model.ScorePeriod;
+import com.cardgame.backend.model.UserStats;
+import com.cardgame.backend.repository.GameHistoryRepository;
+import com.cardgame.backend.repository.ScoreBucketRepository;
+import com.cardgame.backend.repository.UserRepository;
+import com.cardgame.backend.repository.UserScoreRow;
+import com.cardgame.backend.repository.UserStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records finished games: the history rows, the users' totals and streaks, and the
+ * {@link UserStats} aggregates and the day and week {@link ScoreBucket}s, all in one
+ * transaction. Score and streaks are changed by a single UPDATE per user, so concurrent saves
+ * for the same user never lose each other.
+ */
+@Service
+public class GameResultService {
+
+    private static final String INSERT_HISTORY =
+            "INSERT INTO game_history (user_id, score, num_decks, won, played_at, seed, moves) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GameHistoryRepository gameHistoryRepository;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private ScoreBucketRepository scoreBucketRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Saves a batch of finished games, in order, and returns the users' new leaderboard
+     * values. History rows go in as one JDBC batch (their ids are not needed back, so the
+     * identity column does not prevent batching) and each user gets a single atomic UPDATE
+     * however many of their games are in the batch.
+     */
+    @Transactional
+    public SavedGames saveResults(List<GameResult> results) {
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, results, results.size(), (ps, result) -> {
+            ps.setLong(1, result.userId());
+            ps.setInt(2, result.score());
+            ps.setInt(3, result.numDecks());
+            ps.setBoolean(4, result.won());
+            ps.setTimestamp(5, Timestamp.valueOf(result.playedAt()));
+            if (result.seed() != null) {
+                ps.setLong(6, result.seed());
+            } else {
+                ps.setNull(6, Types.BIGINT);
+            }
+            ps.setString(7, result.moves());
+        });
+
+        // Id order, so two transactions touching the same users cannot deadlock
+        Map<Long, List<GameResult>> byUser = new TreeMap<>();
+        for (GameResult result : results) {
+            byUser.computeIfAbsent(result.userId(), id -> new ArrayList<>()).add(result);
+        }
+
+        // The UPDATE also row-locks the user until commit, which serialises the stats update below
+        for (Map.Entry<Long, List<GameResult>> entry : byUser.entrySet()) {
+            Outcome outcome = Outcome.of(entry.getValue());
+            userRepository.applyResults(entry.getKey(), outcome.scoreSum(), outcome.leadingWins(),
+                    outcome.trailingWins(), outcome.maxRun(), outcome.hadLoss(),
+                    entry.getValue().get(0).numDecks());
+        }
+
+        Map<Long, UserStats> stats = new HashMap<>();
+        for (UserStats userStats : userStatsRepository.findAllById(byUser.keySet())) {
+            stats.put(userStats.getUserId(), userStats);
+        }
+        for (Map.Entry<Long, List<GameResult>> entry : byUser.entrySet()) {
+            UserStats userStats = stats.get(entry.getKey());
+            if (userStats != null) {
+                for (GameResult game : entry.getValue()) {
+                    userStats.record(game.numDecks(), game.won(), game.score());
+                }
+            } else {
+                // First save since stats were introduced: start from the full history, this batch included
+                stats.put(entry.getKey(), UserStats.fromAggregates(
+                        entry.getKey(), gameHistoryRepository.aggregateByDecks(entry.getKey())));
+            }
+        }
+        userStatsRepository.saveAll(stats.values());
+
+        List<ScoreBucket> buckets = updateBuckets(results);
+
+        // The save queue's writer is the only thing inserting history, so this is the batch's last id
+        long lastGameId = gameHistoryRepository.findMaxId();
+        return new SavedGames(userRepository.findScoreRows(byUser.keySet()), buckets, lastGameId);
+    }
+
+    /**
+     * Adds each game's score to its user's bucket for the day and week it was played in,
+     * creating buckets as needed. Runs under the user row locks taken by the UPDATE above, so
+     * no other transaction can be creating the same bucket.
+     */
+    private List<ScoreBucket> updateBuckets(List<GameResult> results) {
+        List<ScoreBucket> buckets = new ArrayList<>();
+        for (ScorePeriod period : ScorePeriod.values()) {
+            // A batch nearly always falls in one period; one lookup per period start it spans
+            Map<LocalDate, Map<Long, List<GameResult>>> byStart = new TreeMap<>();
+            for (GameResult result : results) {
+                byStart.computeIfAbsent(period.startOf(result.playedAt().toLocalDate()), start -> new TreeMap<>())
+                        .computeIfAbsent(result.userId(), id -> new ArrayList<>())
+                        .add(result);
+            }
+            for (Map.Entry<LocalDate, Map<Long, List<GameResult>>> entry : byStart.entrySet()) {
+                Map<Long, ScoreBucket> existing = new HashMap<>();
+                for (ScoreBucket bucket : scoreBucketRepository.findByPeriodTypeAndPeriodStartAndUserIdIn(
+                        period, entry.getKey(), entry.getValue().keySet())) {
+                    existing.put(bucket.getUserId(), bucket);
+                }
+                entry.getValue().forEach((userId, games) -> {
+                    ScoreBucket bucket = existing.computeIfAbsent(userId,
+                            id -> new ScoreBucket(id, period, entry.getKey()));
+                    for (GameResult game : games) {
+                        bucket.add(game.score());
+                    }
+                    buckets.add(bucket);
+                });
+            }
+        }
+        scoreBucketRepository.saveAll(buckets);
+        return buckets;
+    }
+
+    /**
+     * What a run of results does to a user's score and streaks, independent of where the
+     * streak stood before: see {@link UserRepository#applyResults}.
+     */
+    record Outcome(int scoreSum, int leadingWins, int trailingWins, int maxRun, boolean hadLoss) {
+
+        static Outcome of(List<GameResult> games) {
+            int scoreSum = 0;
+            int leadingWins = 0;
+            int run = 0;
+            int maxRun = 0;
+            boolean hadLoss = false;
+            for (GameResult game : games) {
+                scoreSum += game.score();
+                if (game.won()) {
+                    run++;
+                    maxRun = Math.max(maxRun, run);
+                    if (!hadLoss) {
+                        leadingWins++;
+                    }
+                } else {
+                    hadLoss = true;
+                    run = 0;
+                }
+            }
+            return new Outcome(scoreSum, leadingWins, run, maxRun, hadLoss);
+        }
+    }
+
+    /**
+     * Creates the stats row of a user who has history but none yet, or rebuilds one written
+     * before best scores were kept. Returns false if the row is already complete, e.g.
+     * because a game was saved meanwhile.
+     */
+    @Transactional
+    public boolean backfillStats(Long userId) {
+        if (userRepository.findByIdForUpdate(userId).isEmpty() || userStatsRepository.findById(userId)
+                .map(existing -> !existing.isMissingBestScores()).orElse(false)) {
+            return false;
+        }
+        userStatsRepository.save(UserStats.fromAggregates(userId, gameHistoryRepository.aggregateByDecks(userId)));
+        return true;
+    }
+}
@@ -0,0 +1,349 @@
+package com.cardgame.backend.service;
+
+import com.cardgame.backend.leaderboard.LeaderboardIndex;
+import com.cardgame.backend.model.ScoreBucket;
+import com.cardgame.backend.model.User;
+import com.cardgame.backend.repository.UserRepository;
+import com.cardgame.backend.repository.UserScoreRow;
+import com.cardgame.backend.stats.ScoreDistributions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind pipeline for finished games. Requests enqueue a {@link GameResult} and return
+ * at once; a single writer thread drains whatever has accumulated and records it through
+ * {@link GameResultService#saveResults} as one batch. The queue is bounded: when it is full
+ * the caller waits for room, so one user's results are always written in the order they were
+ * submitted. Pending results are flushed on shutdown.
+ * <p>
+ * A result that fails to write is retried by the writer with exponential backoff; after
+ * {@code game.save.max-attempts} it is given up on, logged in full and counted in
+ * {@link #failedCount()}.
+ * <p>
+ * Until a user's results are written, their new win streak is predicted here and the results
+ * themselves can be read back ({@link #pendingResults}), so responses, stats and newly
+ * started games see them immediately.
+ */
+@Service
+public class GameSaveQueue {
+
+    private static final long MAX_RETRY_BACKOFF_MS = TimeUnit.MINUTES.toMillis(5);
+
+    @Autowired
+    private GameResultService gameResultService;
+
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private ScoreDistributions scoreDistributions;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final BlockingQueue<GameResult> queue;
+    private final int batchSize;
+    private final long retryBackoffMs;
+    private final int maxAttempts;
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    // Failed results waiting for another attempt, oldest first; only the writer touches it
+    private final Deque<Retry> retries = new ArrayDeque<>();
+    private final AtomicInteger retrying = new AtomicInteger();
+    private final AtomicLong failed = new AtomicLong();
+    // Serializes draining once the writer has stopped, so late results keep their order
+    private final Lock flushLock = new ReentrantLock();
+    private volatile boolean running;
+    private Thread writer;
+
+    // Results of one user still in the queue, oldest first, and the streak they will leave behind
+    private static final class Pending {
+        final List<GameResult> results = new ArrayList<>();
+        int winStreak;
+    }
+
+    private static final class Retry {
+        final GameResult result;
+        int attempts = 1;
+        long dueAt;
+
+        Retry(GameResult result) {
+            this.result = result;
+        }
+    }
+
+    public GameSaveQueue(@Value("${game.save.queue-capacity:10000}") int capacity,
+                         @Value("${game.save.batch-size:200}") int batchSize,
+                         @Value("${game.save.retry-backoff-ms:1000}") long retryBackoffMs,
+                         @Value("${game.save.max-attempts:8}") int maxAttempts) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = new Thread(this::drain, "game-save-writer");
+        writer.start();
+    }
+
+    /**
+     * Queues a finished game and returns the user's win streak once it is applied.
+     * {@code knownWinStreak} is the user's current stored streak if the caller has just read
+     * it, otherwise null to have it read here. Waits while the queue is full.
+     */
+    public int submit(GameResult result, Integer knownWinStreak) {
+        Pending entry = null;
+        Integer storedWinStreak = knownWinStreak;
+        while (entry == null) {
+            // Loaded outside compute(), which must not block other users' submits on a query
+            if (storedWinStreak == null && !pending.containsKey(result.userId())) {
+                storedWinStreak = userRepository.findById(result.userId())
+                        .map(User::getCurrentWinStreak)
+                        .orElse(0);
+            }
+            Integer base = storedWinStreak;
+            entry = pending.compute(result.userId(), (id, p) -> {
+                if (p == null) {
+                    if (base == null) {
+                        // Written while we looked: the stored streak is current now, read it
+                        return null;
+                    }
+                    // Nothing queued for this user, so the stored streak is current
+                    p = new Pending();
+                    p.winStreak = base;
+                }
+                p.results.add(result);
+                p.winStreak = result.won() ? p.winStreak + 1 : 0;
+                return p;
+            });
+        }
+        int predicted = entry.winStreak;
+
+        try {
+            queue.put(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a game result", e);
+        }
+        if (!running && !writer.isAlive()) {
+            // Arrived after the writer stopped; nothing else will drain it
+            flushQueue();
+        }
+        return predicted;
+    }
+
+    /** Streak the user will have once their queued results are written, or null if none are queued. */
+    public Integer pendingWinStreak(Long userId) {
+        Pending p = pending.get(userId);
+        return p != null ? p.winStreak : null;
+    }
+
+    /** This user's results not written yet, oldest first; empty if none are queued. */
+    public List<GameResult> pendingResults(Long userId) {
+        List<GameResult> results = new ArrayList<>();
+        // Read inside compute so the list is not copied while the writer releases from it
+        pending.computeIfPresent(userId, (id, p) -> {
+            results.addAll(p.results);
+            return p;
+        });
+        return results;
+    }
+
+    public int depth() {
+        return queue.size();
+    }
+
+    /** Results that failed to write and are waiting to be retried. */
+    public int retryingCount() {
+        return retrying.get();
+    }
+
+    /** Results given up on after every attempt failed. */
+    public long failedCount() {
+        return failed.get();
+    }
+
+    private void drain() {
+        List<GameResult> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                retryDue(false);
+                GameResult first = queue.poll(pollTimeoutMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Wakes up for the next retry, or after a second so shutdown is noticed
+    private long pollTimeoutMs() {
+        long timeout = 1000;
+        if (!retries.isEmpty()) {
+            long untilDue = retries.stream().mapToLong(retry -> retry.dueAt).min().getAsLong()
+                    - System.currentTimeMillis();
+            timeout = Math.max(0, Math.min(timeout, untilDue));
+        }
+        return timeout;
+    }
+
+    private void write(List<GameResult> batch) {
+        SavedGames saved;
+        try {
+            saved = gameResultService.saveResults(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                scheduleRetry(new Retry(batch.get(0)), e);
+            } else {
+                // Retry one by one so a single bad result does not hold back the rest
+                for (GameResult result : batch) {
+                    write(List.of(result));
+                }
+            }
+            return;
+        }
+        // Released first: from the commit on, the results are in the tables and must not be
+        // counted again by readers that add pending results to the stored ones
+        released(batch);
+        published(saved, batch);
+    }
+
+    // Retries failed results that are due, or all of them when flushing on shutdown
+    private void retryDue(boolean all) {
+        long now = System.currentTimeMillis();
+        List<Retry> due = new ArrayList<>();
+        for (Iterator<Retry> it = retries.iterator(); it.hasNext(); ) {
+            Retry retry = it.next();
+            if (all || retry.dueAt <= now) {
+                it.remove();
+                retrying.decrementAndGet();
+                due.add(retry);
+            }
+        }
+
+        for (Retry retry : due) {
+            List<GameResult> single = List.of(retry.result);
+            SavedGames saved;
+            try {
+                saved = gameResultService.saveResults(single);
+            } catch (RuntimeException e) {
+                retry.attempts++;
+                scheduleRetry(retry, e);
+                continue;
+            }
+            released(single);
+            published(saved, single);
+        }
+    }
+
+    private void scheduleRetry(Retry retry, RuntimeException cause) {
+        if (retry.attempts >= maxAttempts || (!running && !writer.isAlive())) {
+            System.err.println("Giving up on game result after " + retry.attempts + " attempts: "
+                    + retry.result + ": " + cause.getMessage());
+            released(List.of(retry.result));
+            failed.incrementAndGet();
+            return;
+        }
+        long backoff = Math.min(retryBackoffMs << Math.min(retry.attempts - 1, 20), MAX_RETRY_BACKOFF_MS);
+        retry.dueAt = System.currentTimeMillis() + backoff;
+        System.err.println("Failed to save game result for user " + retry.result.userId()
+                + " (attempt " + retry.attempts + "), retrying in " + backoff + " ms: " + cause.getMessage());
+        retries.addLast(retry);
+        retrying.incrementAndGet();
+    }
+
+    // The results are stored; a failure here only leaves the in-memory views behind until
+    // their next rebuild, so it must not send the batch back to be written again
+    private void published(SavedGames saved, List<GameResult> batch) {
+        try {
+            // Histograms first, so a leaderboard failure below cannot leave games uncounted
+            for (GameResult result : batch) {
+                scoreDistributions.record(result.numDecks(), result.score());
+            }
+            scoreDistributions.recorded(saved.lastGameId());
+            for (UserScoreRow row : saved.users()) {
+                leaderboardIndex.update(row);
+            }
+            for (ScoreBucket bucket : saved.buckets()) {
+                leaderboardIndex.updateWindow(bucket.getPeriodType(), bucket.getPeriodStart(),
+                        bucket.getUserId(), bucket.getScore());
+            }
+            for (GameResult result : batch) {
+                leaderboardIndex.updateDifficulty(result.numDecks(), result.userId(), result.score());
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Saved " + batch.size() + " game results but could not update the leaderboards: "
+                    + e.getMessage());
+        }
+    }
+
+    // Written or given up on: these results no longer shape the predicted streak
+    private void released(List<GameResult> batch) {
+        Map<Long, List<GameResult>> written = new HashMap<>();
+        for (GameResult result : batch) {
+            written.computeIfAbsent(result.userId(), id -> new ArrayList<>()).add(result);
+        }
+        written.forEach((userId, results) -> pending.computeIfPresent(userId, (id, p) -> {
+            results.forEach(p.results::remove);
+            return p.results.isEmpty() ? null : p;
+        }));
+    }
+
+    private void flushQueue() {
+        flushLock.lock();
+        try {
+            List<GameResult> rest = new ArrayList<>();
+            queue.drainTo(rest);
+            if (!rest.isEmpty()) {
+                write(rest);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // The writer notices within its poll timeout and exits once the queue is empty
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+
+        // Anything that slipped in as the writer stopped, then one last try for the failures
+        flushQueue();
+        flushLock.lock();
+        try {
+            retryDue(true);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
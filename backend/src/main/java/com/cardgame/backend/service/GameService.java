@@ -1,303 +1,245 @@
 package com.cardgame.backend.service;
 
+import com.cardgame.backend.dto.GuessDelta;
+import com.cardgame.backend.engine.Cards;
+import com.cardgame.backend.engine.GameRules;
 import com.cardgame.backend.model.GameState;
+import com.cardgame.backend.model.GuessRequest;
+import com.cardgame.backend.model.GuessResult;
 import com.cardgame.backend.model.ProbabilityInfo;
+import com.cardgame.backend.store.GameStore;
 import org.springframework.stereotype.Service;
-import org.springframework.web.context.annotation.SessionScope;
-
-import java.util.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Game lifecycle on top of {@link GameRules}. Stateless: games live in the {@link GameStore}
+ * under their game id, and every call names the game it acts on.
+ */
 @Service
-@SessionScope
 public class GameService {
 
-    private static final int TOTAL_CARDS = 52;
-    private GameState currentGame;
+    private final GameStore gameStore;
 
-    public GameService() {
-        this.currentGame = null;
+    public GameService(GameStore gameStore) {
+        this.gameStore = gameStore;
     }
 
     /**
-     * ✅ UPDATED: Calculate score multiplier based on number of decks
+     * Starts a game for {@code owner}. The win streak only changes when a finished game is
+     * saved, so it is captured here once and every guess scores against it.
      */
-    private double getDeckMultiplier(int numDecks) {
-        switch (numDecks) {
-            case 6: return 2.0;  // Hardest
-            case 7: return 1.8;
-            case 8: return 1.5;
-            case 9: return 1.2;
-            case 10: return 1.0; // Easiest
-            default: return 1.0;
+    public GameState startNewGame(String owner, int numDecks, int winStreak) {
+        if (numDecks < 6 || numDecks > 10) {
+            throw new IllegalArgumentException("Number of decks must be between 6 and 10");
         }
-    }
 
-    /**
-     * ✅ NEW: Calculate streak multiplier based on user's win streak
-     */
-    private double getStreakMultiplier(int winStreak) {
-        if (winStreak < 2) return 1.0;
-        // Starts at 1.1x for 2-game streak, increases by 0.05x per additional win
-        return 1.0 + (0.05 * winStreak);
+        // The deck is shuffled once from a fresh seed; draws just advance a cursor
+        GameState game = GameRules.newGame(numDecks, ThreadLocalRandom.current().nextLong());
+        game.setGameId(UUID.randomUUID().toString());
+        game.setOwner(owner);
+        game.setWinStreak(winStreak);
+        gameStore.save(game);
+        return game;
     }
 
     /**
-     * ✅ NEW: Calculate bonus points for winning
+     * Applies one guess to {@code owner}'s game and stores the result. Scores against the win
+     * streak captured when the game started; throws if the game does not exist or belongs to
+     * someone else. Guesses on one game are applied one at a time under its lock.
      */
-    private int getVictoryBonus(int numDecks, int winStreak) {
-        int deckBonus = (11 - numDecks) * 50; // More bonus for harder difficulties
-        int streakBonus = winStreak * 25; // 25 points per win in streak
-        return deckBonus + streakBonus;
-    }
-
-    public GameState startNewGame(int numDecks) {
-        if (numDecks < 6 || numDecks > 10) {
-            throw new IllegalArgumentException("Number of decks must be between 6 and 10");
-        }
-
-        currentGame = new GameState();
-        currentGame.setNumDecks(numDecks);
-
-        HashMap<String, ArrayList<String>> cards = initializeCards();
-        currentGame.setRemainingCards(cards);
-
-        List<String> deckValues = new ArrayList<>();
-        for (int i = 0; i < numDecks; i++) {
-            deckValues.add(drawRandomCard(cards));
+    public GameState processGuess(String gameId, String owner, int deckNumber, String guess) {
+        GameState game = getGame(gameId, owner);
+        if (game == null) {
+            throw new IllegalStateException("No game in progress. Start a new game first.");
         }
-        currentGame.setDeckValues(deckValues);
-        currentGame.setScore(0);
-        currentGame.setMessage("Game started! Choose a deck and guess high or low.");
-
-        return currentGame;
-    }
-
-    private HashMap<String, ArrayList<String>> initializeCards() {
-        HashMap<String, ArrayList<String>> cards = new HashMap<>();
-        String[] suits = {"S", "C", "H", "D"};
-        String[] values = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
 
-        for (String suit : suits) {
-            ArrayList<String> list = new ArrayList<>();
-            for (String value : values) {
-                list.add(value + suit);
-            }
-            cards.put(suit, list);
+        game.lock().lock();
+        try {
+            GameRules.applyGuess(game, deckNumber, guess, game.getWinStreak());
+            gameStore.save(game);
+        } finally {
+            game.lock().unlock();
         }
-
-        return cards;
+        return game;
     }
 
-    private String drawRandomCard(HashMap<String, ArrayList<String>> cards) {
-        Random rand = new Random();
-        ArrayList<String> suitList = new ArrayList<>(cards.keySet());
-
-        if (suitList.isEmpty()) {
-            return null;
+    /**
+     * Same as {@link #processGuess} but answers with a {@link GuessDelta}: only what changed,
+     * with a result code instead of the formatted message, and optionally the new probabilities.
+     */
+    public GuessDelta processGuessCompact(String gameId, String owner, int deckNumber, String guess,
+                                          boolean withProbabilities) {
+        GameState game = getGame(gameId, owner);
+        if (game == null) {
+            throw new IllegalStateException("No game in progress. Start a new game first.");
         }
 
-        String randomSuit = suitList.get(rand.nextInt(suitList.size()));
-        ArrayList<String> suitCards = cards.get(randomSuit);
-        String pickedCard = suitCards.remove(rand.nextInt(suitCards.size()));
-
-        if (suitCards.isEmpty()) {
-            cards.remove(randomSuit);
+        game.lock().lock();
+        try {
+            GuessResult result = GameRules.applyGuess(game, deckNumber, guess, game.getWinStreak());
+            gameStore.save(game);
+
+            int deck = deckNumber - 1;
+            int drawn = game.getLastCard();
+            boolean drew = result != GuessResult.GAME_OVER && result != GuessResult.INVALID_DECK
+                    && result != GuessResult.DECK_ELIMINATED && drawn != Cards.NONE;
+            int newTop = drew ? game.getPileTop(deck) : Cards.NONE;
+
+            GuessDelta delta = new GuessDelta(
+                    result,
+                    deck,
+                    drew ? Cards.name(drawn) : null,
+                    newTop != Cards.NONE ? Cards.name(newTop) : null,
+                    drew && newTop == Cards.NONE,
+                    game.getScore(),
+                    game.isGameOver(),
+                    game.isWon(),
+                    game.getWinStreak()
+            );
+            if (withProbabilities && !game.isGameOver()) {
+                delta.setProbabilities(probabilitiesOf(game));
+            }
+            return delta;
+        } finally {
+            game.lock().unlock();
         }
-
-        return pickedCard;
     }
 
     /**
-     * ✅ UPDATED: Process guess with win streak multiplier
+     * Applies a sequence of guesses to one game with a single store read and write, stopping
+     * as soon as the game ends. Returns a snapshot after each applied guess when
+     * {@code intermediateStates} is set, otherwise just the final state.
      */
-    public GameState processGuess(int deckNumber, String guess, int userWinStreak) {
-        if (currentGame == null) {
+    public List<GameState> processGuesses(String gameId, String owner, List<GuessRequest> guesses,
+                                          boolean intermediateStates) {
+        GameState game = getGame(gameId, owner);
+        if (game == null) {
             throw new IllegalStateException("No game in progress. Start a new game first.");
         }
 
-        if (currentGame.isGameOver()) {
-            return currentGame;
-        }
-
-        if (deckNumber < 1 || deckNumber > currentGame.getNumDecks()) {
-            currentGame.setMessage("Invalid deck number");
-            return currentGame;
-        }
-
-        String topCard = currentGame.getDeckValues().get(deckNumber - 1);
-        if (topCard.equalsIgnoreCase("XX")) {
-            currentGame.setMessage("Deck " + deckNumber + " is already eliminated. Choose another deck.");
-            return currentGame;
-        }
-
-        String newCard = drawRandomCard(currentGame.getRemainingCards());
-
-        // Calculate remaining cards
-        int remainingCardsCount = getDeckSize(currentGame.getRemainingCards());
-
-        // ✅ Calculate score with win streak multiplier
-        int baseScore = TOTAL_CARDS - remainingCardsCount;
-        double deckMultiplier = getDeckMultiplier(currentGame.getNumDecks());
-        double streakMultiplier = getStreakMultiplier(userWinStreak);
-
-        boolean correct = checkGuess(topCard, newCard, guess);
-
-        int finalScore = (int) Math.round(baseScore * deckMultiplier * streakMultiplier);
-
-        // Check win condition
-        if (baseScore >= TOTAL_CARDS || remainingCardsCount == 0) {
-            int victoryBonus = getVictoryBonus(currentGame.getNumDecks(), userWinStreak);
-            finalScore += victoryBonus;
-
-            currentGame.setScore(finalScore);
-            currentGame.setGameOver(true);
-            currentGame.setWon(true);
-
-            if (correct) {
-                currentGame.getDeckValues().set(deckNumber - 1, newCard);
-                currentGame.setMessage(String.format(
-                        "🎉 Victory! Final card: %s | Score: %d | Win Streak: %d (%.2fx multiplier) | Victory Bonus: +%d 🎉",
-                        newCard, finalScore, userWinStreak, streakMultiplier, victoryBonus
-                ));
-            } else {
-                currentGame.getDeckValues().set(deckNumber - 1, "XX");
-                currentGame.setMessage(String.format(
-                        "🎉 Victory! Final card: %s | Score: %d 🎉",
-                        newCard, finalScore
-                ));
+        List<GameState> states = new ArrayList<>(intermediateStates ? guesses.size() : 1);
+        game.lock().lock();
+        try {
+            for (GuessRequest guess : guesses) {
+                if (game.isGameOver()) {
+                    break;
+                }
+                GameRules.applyGuess(game, guess.getDeckNumber(), guess.getGuess(), game.getWinStreak());
+                if (intermediateStates) {
+                    states.add(game.copy());
+                }
             }
-
-            return currentGame;
+            gameStore.save(game);
+        } finally {
+            game.lock().unlock();
         }
 
-        if (newCard == null) {
-            int victoryBonus = getVictoryBonus(currentGame.getNumDecks(), userWinStreak);
-            finalScore += victoryBonus;
-            currentGame.setScore(finalScore);
-            currentGame.setGameOver(true);
-            currentGame.setWon(true);
-            currentGame.setMessage(String.format(
-                    "🎉 Victory! All cards guessed! Score: %d | Bonus: +%d 🎉",
-                    finalScore, victoryBonus
-            ));
-            return currentGame;
+        if (!intermediateStates || states.isEmpty()) {
+            states.add(game);
         }
+        return states;
+    }
 
-        currentGame.setScore(finalScore);
-
-        if (correct) {
-            currentGame.getDeckValues().set(deckNumber - 1, newCard);
-            currentGame.setMessage(String.format(
-                    "✅ Correct! New card: %s | Score: %d | Win Streak: %d (%.2fx multiplier)",
-                    newCard, finalScore, userWinStreak, streakMultiplier
-            ));
-        } else {
-            currentGame.getDeckValues().set(deckNumber - 1, "XX");
-            currentGame.setMessage(String.format(
-                    "❌ Wrong! Card: %s | Deck %d eliminated | Score: %d",
-                    newCard, deckNumber, finalScore
-            ));
+    /**
+     * Rebuilds a finished or in-progress game from its seed and the guesses made, e.g. to
+     * check a disputed result offline. Nothing is written to the game store.
+     */
+    public GameState replayGame(int numDecks, long seed, int userWinStreak, List<GuessRequest> guesses) {
+        GameState game = GameRules.newGame(numDecks, seed);
+        game.setWinStreak(userWinStreak);
+        for (GuessRequest guess : guesses) {
+            GameRules.applyGuess(game, guess.getDeckNumber(), guess.getGuess(), userWinStreak);
         }
+        return game;
+    }
 
-        // Check if all decks eliminated
-        boolean allEliminated = currentGame.getDeckValues().stream()
-                .allMatch(val -> val.equalsIgnoreCase("XX"));
-
-        if (allEliminated) {
-            currentGame.setGameOver(true);
-            currentGame.setWon(false);
-            currentGame.setMessage(currentGame.getMessage() + " | Game Over! All decks eliminated. Final score: " + finalScore);
+    /** Parses a move log produced by {@link GameState#getMoveLog()} back into guesses. */
+    public static List<GuessRequest> movesFromLog(String moveLog) {
+        List<GuessRequest> guesses = new ArrayList<>(moveLog.length() / 2);
+        for (int i = 0; i + 1 < moveLog.length(); i += 2) {
+            int deckNumber = moveLog.charAt(i) - '0' + 1;
+            guesses.add(new GuessRequest(deckNumber, String.valueOf(moveLog.charAt(i + 1))));
         }
-
-        return currentGame;
+        return guesses;
     }
 
-    private boolean checkGuess(String topCard, String newCard, String guess) {
-        int topValue = getCardValue(topCard);
-        int newValue = getCardValue(newCard);
 
-        if (topValue == newValue) {
-            return true;
+    public ProbabilityInfo calculateProbability(String gameId, String owner, int deckIndex) {
+        GameState game = getGame(gameId, owner);
+        if (game == null) {
+            return new ProbabilityInfo(0, 0, 0, 0);
         }
 
-        if (guess.equalsIgnoreCase("h") || guess.equalsIgnoreCase("high")) {
-            return newValue > topValue;
-        } else if (guess.equalsIgnoreCase("l") || guess.equalsIgnoreCase("low")) {
-            return newValue < topValue;
+        game.lock().lock();
+        try {
+            return probabilityFor(game, deckIndex);
+        } finally {
+            game.lock().unlock();
         }
-
-        return false;
     }
 
-    private int getCardValue(String card) {
-        if (card.equalsIgnoreCase("XX")) {
-            return 0;
+    /**
+     * Probabilities for every deck of a game, keyed by deck index.
+     * One pass over the piles; each lookup is constant time.
+     */
+    public Map<Integer, ProbabilityInfo> calculateAllProbabilities(String gameId, String owner) {
+        GameState game = getGame(gameId, owner);
+        if (game == null) {
+            return null;
         }
 
-        String value = card.substring(0, card.length() - 1);
-        switch (value) {
-            case "A": return 1;
-            case "J": return 11;
-            case "Q": return 12;
-            case "K": return 13;
-            case "X": return 0;
-            default:
-                try {
-                    return Integer.parseInt(value);
-                } catch (NumberFormatException e) {
-                    return 0;
-                }
-        }
+        return probabilitiesOf(game);
     }
 
-    private int getDeckSize(HashMap<String, ArrayList<String>> cards) {
-        int size = 0;
-        for (ArrayList<String> list : cards.values()) {
-            size += list.size();
+    /** Probabilities for every deck of an already loaded game. */
+    public Map<Integer, ProbabilityInfo> probabilitiesOf(GameState game) {
+        Map<Integer, ProbabilityInfo> probabilities = new HashMap<>();
+        game.lock().lock();
+        try {
+            for (int i = 0; i < game.getNumDecks(); i++) {
+                probabilities.put(i, probabilityFor(game, i));
+            }
+        } finally {
+            game.lock().unlock();
         }
-        return size;
+        return probabilities;
     }
 
-    public ProbabilityInfo calculateProbability(int deckIndex) {
-        if (currentGame == null) {
-            return new ProbabilityInfo(0, 0, 0, 0);
-        }
+    private ProbabilityInfo probabilityFor(GameState game, int deckIndex) {
+        int topCard = game.getPileTop(deckIndex);
 
-        String topCard = currentGame.getDeckValues().get(deckIndex);
-
-        if (topCard.equalsIgnoreCase("XX")) {
+        if (topCard == Cards.NONE) {
             return new ProbabilityInfo(0, 0, 0, 0);
         }
 
-        int topValue = getCardValue(topCard);
-        int higherCount = 0;
-        int lowerCount = 0;
-        int equalCount = 0;
-
-        HashMap<String, ArrayList<String>> cards = currentGame.getRemainingCards();
-
-        for (ArrayList<String> list : cards.values()) {
-            for (String card : list) {
-                int cardValue = getCardValue(card);
-                if (cardValue > topValue) {
-                    higherCount++;
-                } else if (cardValue < topValue) {
-                    lowerCount++;
-                } else {
-                    equalCount++;
-                }
-            }
-        }
-
-        int total = getDeckSize(cards);
-        return new ProbabilityInfo(higherCount, lowerCount, equalCount, total);
+        int topValue = Cards.rank(topCard);
+        return new ProbabilityInfo(
+                game.countAbove(topValue),
+                game.countBelow(topValue),
+                game.countOfRank(topValue),
+                game.getRemainingCount()
+        );
     }
 
-    public GameState getCurrentGame() {
-        return currentGame;
+    /** Returns the game if it exists and belongs to {@code owner}, otherwise null. */
+    public GameState getGame(String gameId, String owner) {
+        GameState game = gameStore.get(gameId);
+        if (game == null || !Objects.equals(game.getOwner(), owner)) {
+            return null;
+        }
+        return game;
     }
 
-    public void resetGame() {
-        this.currentGame = null;
+    public void resetGame(String gameId, String owner) {
+        if (getGame(gameId, owner) != null) {
+            gameStore.remove(gameId);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.cardgame.backend.service;
+
+import com.cardgame.backend.model.ScoreBucket;
+import com.cardgame.backend.repository.UserScoreRow;
+
+import java.util.List;
+
+/**
+ * What a saved batch changed, for the in-memory leaderboards and score histograms: each
+ * user's new totals, their updated day and week buckets, and the largest game_history id
+ * written so far.
+ */
+public record SavedGames(List<UserScoreRow> users, List<ScoreBucket> buckets, long lastGameId) {
+}
@@ -0,0 +1,52 @@
+package com.cardgame.backend.service;
+
+import com.cardgame.backend.repository.GameHistoryRepository;
+import com.cardgame.backend.repository.UserStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * One-off job that builds the user_stats rows of players whose games were saved before the
+ * aggregate existed, and rebuilds rows written before it kept best scores. Safe to run on
+ * every start: users whose row is complete are skipped.
+ */
+@Component
+@ConditionalOnProperty(name = "stats.backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class UserStatsBackfill {
+
+    @Autowired
+    private GameHistoryRepository gameHistoryRepository;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private GameResultService gameResultService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Set<Long> userIds = new LinkedHashSet<>(gameHistoryRepository.findUserIdsWithoutStats());
+        userIds.addAll(userStatsRepository.findUserIdsWithoutBestScores());
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        int created = 0;
+        for (Long userId : userIds) {
+            try {
+                if (gameResultService.backfillStats(userId)) {
+                    created++;
+                }
+            } catch (Exception e) {
+                System.err.println("Stats backfill failed for user " + userId + ": " + e.getMessage());
+            }
+        }
+        System.out.println("✅ Backfilled stats for " + created + " users");
+    }
+}
@@ -0,0 +1,106 @@
+package com.cardgame.backend.simulation;
+
+import com.cardgame.backend.engine.GameRules;
+import com.cardgame.backend.model.GameState;
+import com.cardgame.backend.model.GuessResult;
+import com.cardgame.backend.stats.LogLinearHistogram;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Plays games headlessly through {@link GameRules}, in parallel on the common fork-join pool.
+ * Games are split into fixed-size chunks, each with its own generator split from the seed
+ * and its own tallies, merged at the end. Results depend only on the seed, not on the
+ * number of cores.
+ */
+public final class MonteCarloSimulator {
+
+    private static final int CHUNK_SIZE = 10_000;
+
+    private MonteCarloSimulator() {
+    }
+
+    public static SimulationReport simulate(int numDecks, PlayerStrategy strategy, int winStreak,
+                                            long games, long seed) {
+        if (games < 1) {
+            throw new IllegalArgumentException("games must be positive");
+        }
+        int chunks = (int) ((games + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) {
+            randoms[i] = root.split();
+        }
+
+        Tally total = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(i -> play(numDecks, strategy, winStreak,
+                        Math.min(CHUNK_SIZE, games - (long) i * CHUNK_SIZE), randoms[i]))
+                .reduce(Tally::merge)
+                .orElseThrow();
+
+        return new SimulationReport(
+                numDecks,
+                strategy.name(),
+                winStreak,
+                total.games,
+                (double) total.wins / total.games,
+                (double) total.scoreSum / total.games,
+                // Percentiles are bucket upper bounds; never report one above the real maximum
+                Math.min(total.scores.valueAtPercentile(50), total.maxScore),
+                Math.min(total.scores.valueAtPercentile(90), total.maxScore),
+                Math.min(total.scores.valueAtPercentile(99), total.maxScore),
+                total.maxScore,
+                (double) total.moveSum / total.games
+        );
+    }
+
+    private static Tally play(int numDecks, PlayerStrategy strategy, int winStreak, long games,
+                              SplittableRandom random) {
+        Tally tally = new Tally();
+        for (long n = 0; n < games; n++) {
+            GameState game = GameRules.newGame(numDecks, random.nextLong());
+            while (!game.isGameOver()) {
+                PlayerStrategy.Move move = strategy.choose(game, random);
+                GuessResult result = GameRules.applyGuess(game, move.deckNumber(), move.guess(), winStreak);
+                if (result == GuessResult.INVALID_DECK || result == GuessResult.DECK_ELIMINATED) {
+                    throw new IllegalStateException(strategy.name() + " chose unplayable pile " + move.deckNumber());
+                }
+            }
+            tally.add(game);
+        }
+        return tally;
+    }
+
+    // Per-chunk totals; only ever touched by the thread playing the chunk until merged
+    private static final class Tally {
+        long games;
+        long wins;
+        long scoreSum;
+        long moveSum;
+        int maxScore;
+        final LogLinearHistogram scores = new LogLinearHistogram();
+
+        void add(GameState game) {
+            games++;
+            if (game.isWon()) {
+                wins++;
+            }
+            scoreSum += game.getScore();
+            moveSum += game.getMoveCount();
+            maxScore = Math.max(maxScore, game.getScore());
+            scores.record(game.getScore());
+        }
+
+        Tally merge(Tally other) {
+            games += other.games;
+            wins += other.wins;
+            scoreSum += other.scoreSum;
+            moveSum += other.moveSum;
+            maxScore = Math.max(maxScore, other.maxScore);
+            scores.add(other.scores);
+            return this;
+        }
+    }
+}
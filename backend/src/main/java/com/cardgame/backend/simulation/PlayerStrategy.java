@@ -0,0 +1,25 @@
+package com.cardgame.backend.simulation;
+
+import com.cardgame.backend.model.GameState;
+
+import java.util.SplittableRandom;
+
+/**
+ * How a simulated player picks their next guess. Called only while the game is running, and
+ * must name a pile that is still active. Implementations must not keep state between calls:
+ * one instance plays many games on many threads at once.
+ */
+public interface PlayerStrategy {
+
+    String name();
+
+    Move choose(GameState game, SplittableRandom random);
+
+    /** A guess on pile {@code deckNumber} (1-based), higher or lower. */
+    record Move(int deckNumber, boolean high) {
+
+        public String guess() {
+            return high ? "h" : "l";
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.cardgame.backend.simulation;
+
+/**
+ * Outcome of many simulated games of one difficulty and strategy. Moves are guesses that
+ * drew a card, i.e. the length of the game.
+ */
+public record SimulationReport(int numDecks, String strategy, int winStreak, long games, double winRate,
+                               double meanScore, int p50Score, int p90Score, int p99Score, int maxScore,
+                               double meanMoves) {
+
+    public static String header() {
+        return String.format("%5s %-10s %6s %10s %8s %10s %6s %6s %6s %6s %7s",
+                "decks", "strategy", "streak", "games", "win%", "meanScore", "p50", "p90", "p99", "max", "moves");
+    }
+
+    public String toRow() {
+        return String.format("%5d %-10s %6d %10d %8.3f %10.1f %6d %6d %6d %6d %7.1f",
+                numDecks, strategy, winStreak, games, winRate * 100, meanScore, p50Score, p90Score, p99Score,
+                maxScore, meanMoves);
+    }
+}
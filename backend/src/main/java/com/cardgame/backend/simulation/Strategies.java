@@ -0,0 +1,72 @@
+package com.cardgame.backend.simulation;
+
+import com.cardgame.backend.engine.Cards;
+import com.cardgame.backend.model.GameState;
+
+import java.util.SplittableRandom;
+
+/**
+ * Built-in players, from no skill to counting every card. Equal ranks always count as a
+ * correct guess, so the odds of a guess include the cards of the pile's own rank.
+ */
+public enum Strategies implements PlayerStrategy {
+
+    /** Any active pile, either direction. */
+    RANDOM {
+        @Override
+        public Move choose(GameState game, SplittableRandom random) {
+            int pick = random.nextInt(game.getActivePiles());
+            for (int pile = 0; pile < game.getNumDecks(); pile++) {
+                if (game.getPileTop(pile) != Cards.NONE && pick-- == 0) {
+                    return new Move(pile + 1, random.nextBoolean());
+                }
+            }
+            throw new IllegalStateException("No active pile");
+        }
+    },
+
+    /** The first active pile, guessing away from the middle rank (7) like a casual player. */
+    FIRST_PILE {
+        @Override
+        public Move choose(GameState game, SplittableRandom random) {
+            for (int pile = 0; pile < game.getNumDecks(); pile++) {
+                int top = game.getPileTop(pile);
+                if (top != Cards.NONE) {
+                    return new Move(pile + 1, Cards.rank(top) < 7 || (Cards.rank(top) == 7 && random.nextBoolean()));
+                }
+            }
+            throw new IllegalStateException("No active pile");
+        }
+    },
+
+    /** Counts the remaining cards and plays the pile and direction most likely to be right. */
+    BEST_ODDS {
+        @Override
+        public Move choose(GameState game, SplittableRandom random) {
+            Move best = null;
+            int bestCorrect = -1;
+            for (int pile = 0; pile < game.getNumDecks(); pile++) {
+                int top = game.getPileTop(pile);
+                if (top == Cards.NONE) {
+                    continue;
+                }
+                int rank = Cards.rank(top);
+                int above = game.countAbove(rank);
+                int below = game.countBelow(rank);
+                int correct = Math.max(above, below) + game.countOfRank(rank);
+                if (correct > bestCorrect) {
+                    bestCorrect = correct;
+                    best = new Move(pile + 1, above >= below);
+                }
+            }
+            if (best == null) {
+                throw new IllegalStateException("No active pile");
+            }
+            return best;
+        }
+    };
+
+    public static PlayerStrategy byName(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
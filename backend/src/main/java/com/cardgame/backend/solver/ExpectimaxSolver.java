@@ -0,0 +1,209 @@
+package com.cardgame.backend.solver;
+
+import com.cardgame.backend.engine.Cards;
+import com.cardgame.backend.engine.GameRules;
+import com.cardgame.backend.model.GameState;
+
+/**
+ * Finds the pile and guess that maximise a game's expected final score, for one difficulty
+ * and win streak (which fix the scoring). Suits never matter, so a position is just the
+ * remaining cards per rank and the ranks on the active piles; positions that mirror each
+ * other (Ace ↔ King, higher ↔ lower) are worth the same and share one cache entry.
+ * <p>
+ * Positions whose cards left plus distinct pile ranks come to at most {@code exactThreshold}
+ * are solved to the end and cached; that sum never grows as a game goes on, so an exact
+ * position only leads to exact ones. Earlier positions are searched {@code searchDepth} draws
+ * ahead and scored with an estimate beyond that. Instances are thread-safe.
+ */
+public class ExpectimaxSolver {
+
+    private static final int RANKS = Cards.RANKS;
+    private static final int COUNT_BITS = 3;
+    private static final int PILE_BITS_OFFSET = RANKS * COUNT_BITS;
+
+    private final double multiplier;
+    private final double winScore;
+    private final int exactThreshold;
+    private final int searchDepth;
+    private final TranspositionTable table;
+
+    /** The best guess from a position, its expected final score and its chance of being right. */
+    public record Hint(int deckNumber, boolean high, double expectedScore, double probabilityCorrect,
+                       boolean exact) {
+    }
+
+    public ExpectimaxSolver(int numDecks, int winStreak, int exactThreshold, int searchDepth, int cacheEntries) {
+        this.multiplier = GameRules.getDeckMultiplier(numDecks) * GameRules.getStreakMultiplier(winStreak);
+        this.winScore = Math.round(Cards.DECK_SIZE * multiplier) + GameRules.getVictoryBonus(numDecks, winStreak);
+        this.exactThreshold = exactThreshold;
+        this.searchDepth = searchDepth;
+        this.table = new TranspositionTable(cacheEntries);
+    }
+
+    /** The best guess for a running game, or null if the game is over. */
+    public Hint bestMove(GameState game) {
+        int remaining = game.getRemainingCount();
+        if (game.isGameOver() || remaining == 0 || game.getActivePiles() == 0) {
+            return null;
+        }
+
+        int[] counts = new int[RANKS];
+        for (int rank = 1; rank <= RANKS; rank++) {
+            counts[rank - 1] = game.countOfRank(rank);
+        }
+        int[] piles = new int[RANKS];
+        for (int pile = 0; pile < game.getNumDecks(); pile++) {
+            if (game.getPileTop(pile) != Cards.NONE) {
+                piles[Cards.rank(game.getPileTop(pile)) - 1]++;
+            }
+        }
+
+        // Piles of equal rank are interchangeable: evaluate the first of each
+        Hint best = null;
+        boolean[] seen = new boolean[RANKS];
+        for (int pile = 0; pile < game.getNumDecks(); pile++) {
+            int top = game.getPileTop(pile);
+            if (top == Cards.NONE || seen[Cards.rank(top) - 1]) {
+                continue;
+            }
+            int t = Cards.rank(top) - 1;
+            seen[t] = true;
+            for (boolean high : new boolean[]{true, false}) {
+                double expected = expected(counts, piles, remaining, game.getActivePiles(), t, high, searchDepth);
+                if (best == null || expected > best.expectedScore()) {
+                    int correct = counts[t] + (high ? game.countAbove(t + 1) : game.countBelow(t + 1));
+                    best = new Hint(pile + 1, high, expected, (double) correct / remaining,
+                            isExact(piles, remaining));
+                }
+            }
+        }
+        return best;
+    }
+
+    // Expected final score of the best guess from this position
+    private double value(int[] counts, int[] piles, int remaining, int activePiles, int depth) {
+        boolean exact = isExact(piles, remaining);
+        if (!exact && depth <= 0) {
+            return estimate(counts, piles, remaining, activePiles);
+        }
+
+        long key = 0;
+        if (exact) {
+            key = canonicalKey(counts, piles);
+            double cached = table.get(key);
+            if (!Double.isNaN(cached)) {
+                return cached;
+            }
+        }
+
+        double best = Double.NEGATIVE_INFINITY;
+        for (int t = 0; t < RANKS; t++) {
+            if (piles[t] == 0) {
+                continue;
+            }
+            // Higher on an Ace and lower on a King cannot lose; the other direction is never better
+            if (t == 0 || t == RANKS - 1) {
+                best = Math.max(best, expected(counts, piles, remaining, activePiles, t, t == 0, depth));
+            } else {
+                best = Math.max(best, expected(counts, piles, remaining, activePiles, t, true, depth));
+                best = Math.max(best, expected(counts, piles, remaining, activePiles, t, false, depth));
+            }
+        }
+
+        if (exact) {
+            table.put(key, best);
+        }
+        return best;
+    }
+
+    // Expected final score of guessing on a pile of rank index t, averaged over the next card
+    private double expected(int[] counts, int[] piles, int remaining, int activePiles, int t, boolean high,
+                            int depth) {
+        double sum = 0;
+        for (int r = 0; r < RANKS; r++) {
+            int count = counts[r];
+            if (count == 0) {
+                continue;
+            }
+            double outcome;
+            int left = remaining - 1;
+            counts[r]--;
+            if (left == 0) {
+                // The last card wins the game whatever was guessed
+                outcome = winScore;
+            } else if (r == t || (high ? r > t : r < t)) {
+                piles[t]--;
+                piles[r]++;
+                outcome = value(counts, piles, left, activePiles, depth - 1);
+                piles[r]--;
+                piles[t]++;
+            } else if (activePiles == 1) {
+                outcome = score(Cards.DECK_SIZE - left);
+            } else {
+                piles[t]--;
+                outcome = value(counts, piles, left, activePiles - 1, depth - 1);
+                piles[t]++;
+            }
+            counts[r]++;
+            sum += count * outcome;
+        }
+        return sum / remaining;
+    }
+
+    // Each distinct pile rank is a choice at every draw, so it costs as much as a card left
+    private boolean isExact(int[] piles, int remaining) {
+        int budget = exactThreshold - remaining;
+        for (int t = 0; t < RANKS && budget >= 0; t++) {
+            if (piles[t] > 0) {
+                budget--;
+            }
+        }
+        return budget >= 0;
+    }
+
+    /**
+     * Rough value beyond the search horizon: every pile keeps guessing at the current average
+     * odds until it is eliminated, which takes 1 / (1 - p) draws per pile.
+     */
+    private double estimate(int[] counts, int[] piles, int remaining, int activePiles) {
+        double oddsSum = 0;
+        int below = 0;
+        for (int t = 0; t < RANKS; t++) {
+            int above = remaining - below - counts[t];
+            if (piles[t] > 0) {
+                oddsSum += piles[t] * (double) (Math.max(above, below) + counts[t]) / remaining;
+            }
+            below += counts[t];
+        }
+        double p = Math.min(oddsSum / activePiles, 0.99);
+        double draws = activePiles / (1 - p);
+        if (draws >= remaining) {
+            return winScore;
+        }
+        return (Cards.DECK_SIZE - remaining + draws) * multiplier;
+    }
+
+    private double score(int drawn) {
+        return Math.round(drawn * multiplier);
+    }
+
+    /** Key of a position or its mirror image, whichever is smaller. */
+    static long canonicalKey(int[] counts, int[] piles) {
+        return Math.min(key(counts, piles, false), key(counts, piles, true));
+    }
+
+    // 3 bits per remaining-rank count, then the pile ranks as unary counts separated by zeros
+    private static long key(int[] counts, int[] piles, boolean mirrored) {
+        long key = 0;
+        int bit = PILE_BITS_OFFSET;
+        for (int i = 0; i < RANKS; i++) {
+            int rank = mirrored ? RANKS - 1 - i : i;
+            key |= (long) counts[rank] << (i * COUNT_BITS);
+            for (int n = 0; n < piles[rank]; n++) {
+                key |= 1L << bit++;
+            }
+            bit++;
+        }
+        return key;
+    }
+}
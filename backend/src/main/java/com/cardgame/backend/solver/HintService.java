@@ -0,0 +1,56 @@
+package com.cardgame.backend.solver;
+
+import com.cardgame.backend.model.GameState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hands out {@link ExpectimaxSolver}s, one per scoring profile (difficulty and win streak),
+ * so every game with the same scoring shares one solved-position cache. The least recently
+ * used profiles are dropped beyond {@code hint.cache.profiles}.
+ */
+@Service
+public class HintService {
+
+    private final int exactThreshold;
+    private final int searchDepth;
+    private final int cacheEntries;
+    private final Map<Long, ExpectimaxSolver> solvers;
+
+    public HintService(@Value("${hint.exact-threshold:10}") int exactThreshold,
+                       @Value("${hint.search-depth:2}") int searchDepth,
+                       @Value("${hint.cache.entries:262144}") int cacheEntries,
+                       @Value("${hint.cache.profiles:8}") int maxProfiles) {
+        this.exactThreshold = exactThreshold;
+        this.searchDepth = searchDepth;
+        this.cacheEntries = cacheEntries;
+        this.solvers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ExpectimaxSolver> eldest) {
+                return size() > maxProfiles;
+            }
+        };
+    }
+
+    /** The best guess for {@code game}, or null if it is over. */
+    public ExpectimaxSolver.Hint hint(GameState game) {
+        ExpectimaxSolver solver = solverFor(game.getNumDecks(), game.getWinStreak());
+        game.lock().lock();
+        try {
+            return solver.bestMove(game);
+        } finally {
+            game.lock().unlock();
+        }
+    }
+
+    private ExpectimaxSolver solverFor(int numDecks, int winStreak) {
+        long profile = ((long) numDecks << 32) | winStreak;
+        synchronized (solvers) {
+            return solvers.computeIfAbsent(profile, p ->
+                    new ExpectimaxSolver(numDecks, winStreak, exactThreshold, searchDepth, cacheEntries));
+        }
+    }
+}
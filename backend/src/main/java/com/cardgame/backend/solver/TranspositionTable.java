@@ -0,0 +1,47 @@
+package com.cardgame.backend.solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free map from non-zero 64-bit position keys to values. Each slot holds the
+ * value and the key XOR-ed with it, so a slot torn by concurrent writers simply reads as a
+ * miss; a new entry overwrites whatever shared its slot. Memory is two longs per entry.
+ */
+final class TranspositionTable {
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    TranspositionTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(2, entries));
+        this.slots = new AtomicLongArray(size * 2);
+        this.mask = size - 1;
+    }
+
+    /** The stored value, or NaN if {@code key} is not in the table. */
+    double get(long key) {
+        int slot = index(key);
+        long check = slots.getOpaque(slot);
+        long bits = slots.getOpaque(slot + 1);
+        return (check ^ bits) == key ? Double.longBitsToDouble(bits) : Double.NaN;
+    }
+
+    void put(long key, double value) {
+        int slot = index(key);
+        long bits = Double.doubleToRawLongBits(value);
+        slots.setOpaque(slot, key ^ bits);
+        slots.setOpaque(slot + 1, bits);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    private int index(long key) {
+        // Stafford variant 13 mix, so nearby positions spread over the table
+        long h = (key ^ (key >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        h ^= h >>> 31;
+        return ((int) h & mask) << 1;
+    }
+}
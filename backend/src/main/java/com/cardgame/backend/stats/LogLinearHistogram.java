@@ -0,0 +1,144 @@
+package com.cardgame.backend.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * HDR-style histogram of non-negative ints: exact below {@code 2 * SUB_BUCKETS}, then each
+ * power of two is split into {@code SUB_BUCKETS} equal buckets, so any value is placed within
+ * about 3% of itself. Recording is lock-free; histograms merge by adding counts.
+ */
+public class LogLinearHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Highest int has its top bit at 30: shifts 0..25, SUB_BUCKETS indexes each plus the exact range
+    static final int BUCKET_COUNT = (31 - SUB_BUCKET_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong total = new AtomicLong();
+
+    /** Count of values from {@code from} to {@code to}, both inclusive. */
+    public record Bucket(int from, int to, long count) {
+    }
+
+    public void record(int value) {
+        counts.incrementAndGet(indexOf(value));
+        total.incrementAndGet();
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    /** Values recorded below {@code value}'s bucket; exact for values under {@code 2 * SUB_BUCKETS}. */
+    public long countBelow(int value) {
+        int index = indexOf(value);
+        long below = 0;
+        for (int i = 0; i < index; i++) {
+            below += counts.get(i);
+        }
+        return below;
+    }
+
+    /** Highest value of the bucket holding the {@code percentile}th value, or 0 when empty. */
+    public int valueAtPercentile(double percentile) {
+        long n = total.get();
+        if (n == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return highestValue(i);
+            }
+        }
+        return highestValue(BUCKET_COUNT - 1);
+    }
+
+    /** Non-empty buckets in value order. */
+    public List<Bucket> buckets() {
+        List<Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                buckets.add(new Bucket(lowestValue(i), highestValue(i), count));
+            }
+        }
+        return buckets;
+    }
+
+    public void add(LogLinearHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+                total.addAndGet(count);
+            }
+        }
+    }
+
+    /** Non-empty buckets as (index, count) pairs; see {@link #decode}. */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long count = counts.get(i);
+                if (count > 0) {
+                    out.writeShort(i);
+                    out.writeLong(count);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static LogLinearHistogram decode(byte[] encoded) {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            while (in.available() > 0) {
+                int index = in.readUnsignedShort();
+                long count = in.readLong();
+                if (index >= BUCKET_COUNT || count < 0) {
+                    throw new IllegalArgumentException("Corrupt histogram bucket " + index);
+                }
+                histogram.counts.addAndGet(index, count);
+                histogram.total.addAndGet(count);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Truncated histogram", e);
+        }
+        return histogram;
+    }
+
+    // Negative values count as 0
+    static int indexOf(int value) {
+        if (value <= 0) {
+            return 0;
+        }
+        int shift = Math.max(0, 31 - Integer.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * SUB_BUCKETS + (value >>> shift);
+    }
+
+    static int lowestValue(int index) {
+        int shift = index < 2 * SUB_BUCKETS ? 0 : index / SUB_BUCKETS - 1;
+        return (index - shift * SUB_BUCKETS) << shift;
+    }
+
+    static int highestValue(int index) {
+        int shift = index < 2 * SUB_BUCKETS ? 0 : index / SUB_BUCKETS - 1;
+        return lowestValue(index) + ((1 << shift) - 1);
+    }
+}
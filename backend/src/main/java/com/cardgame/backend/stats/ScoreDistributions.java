@@ -0,0 +1,154 @@
+package com.cardgame.backend.stats;
+
+import com.cardgame.backend.model.ScoreDistribution;
+import com.cardgame.backend.model.UserStats;
+import com.cardgame.backend.repository.GameHistoryRepository;
+import com.cardgame.backend.repository.ScoreDistributionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Score histograms of all saved games, overall and per difficulty, kept in memory so
+ * percentile and distribution queries never touch game_history. Every saved game is recorded
+ * here; the histograms are snapshotted to score_distributions periodically and on shutdown,
+ * and on startup the last snapshot is loaded and the games saved after it are replayed.
+ * <p>
+ * Supports a single instance only. The counts are those of the games this process saved or
+ * replayed, and every instance would write its own into the same rows; running more than
+ * one needs the snapshots scoped per node or merged first.
+ */
+@Service
+public class ScoreDistributions {
+
+    private static final String ALL = "all";
+    private static final int REPLAY_BATCH_SIZE = 5000;
+
+    @Autowired
+    private ScoreDistributionRepository scoreDistributionRepository;
+
+    @Autowired
+    private GameHistoryRepository gameHistoryRepository;
+
+    private final LogLinearHistogram all = new LogLinearHistogram();
+    private final Map<Integer, LogLinearHistogram> byDecks = new HashMap<>();
+    // Snapshots are only written once the stored ones have been loaded, never over them
+    private volatile boolean loaded;
+    // Largest game id such that it and every game saved before it are in the counts: the id a
+    // snapshot may claim. Advanced only after a batch's scores are recorded
+    private final AtomicLong recordedUpTo = new AtomicLong();
+    // Serializes load and snapshots; a monitor would pin a virtual thread across their queries
+    private final Lock persistLock = new ReentrantLock();
+
+    public ScoreDistributions() {
+        for (int numDecks = UserStats.MIN_DECKS; numDecks <= UserStats.MAX_DECKS; numDecks++) {
+            byDecks.put(numDecks, new LogLinearHistogram());
+        }
+    }
+
+    public void record(int numDecks, int score) {
+        all.record(score);
+        LogLinearHistogram histogram = byDecks.get(numDecks);
+        if (histogram != null) {
+            histogram.record(score);
+        }
+    }
+
+    /** Marks every game up to {@code lastGameId} as recorded, once their scores are in. */
+    public void recorded(long lastGameId) {
+        recordedUpTo.accumulateAndGet(lastGameId, Math::max);
+    }
+
+    /** Histogram of one difficulty, of all games if {@code numDecks} is null, or null for an unknown difficulty. */
+    public LogLinearHistogram histogram(Integer numDecks) {
+        return numDecks == null ? all : byDecks.get(numDecks);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        persistLock.lock();
+        try {
+            // Games saved from here on are recorded live; replay only up to this id
+            long upToId = gameHistoryRepository.findMaxId();
+
+            Map<String, ScoreDistribution> snapshots = new HashMap<>();
+            for (ScoreDistribution snapshot : scoreDistributionRepository.findAll()) {
+                snapshots.put(snapshot.getScope(), snapshot);
+            }
+            long afterId = 0;
+            ScoreDistribution allSnapshot = snapshots.get(ALL);
+            if (allSnapshot != null && allSnapshot.getLastGameId() <= upToId) {
+                // All scopes are written together, so they cover the same games
+                afterId = allSnapshot.getLastGameId();
+                all.add(LogLinearHistogram.decode(allSnapshot.getCounts()));
+                byDecks.forEach((numDecks, histogram) -> {
+                    ScoreDistribution snapshot = snapshots.get(String.valueOf(numDecks));
+                    if (snapshot != null) {
+                        histogram.add(LogLinearHistogram.decode(snapshot.getCounts()));
+                    }
+                });
+            }
+
+            long replayed = 0;
+            List<Object[]> batch = gameHistoryRepository.findScoresAfter(afterId, upToId, Limit.of(REPLAY_BATCH_SIZE));
+            while (!batch.isEmpty()) {
+                for (Object[] row : batch) {
+                    record(((Number) row[1]).intValue(), ((Number) row[2]).intValue());
+                }
+                replayed += batch.size();
+                if (batch.size() < REPLAY_BATCH_SIZE) {
+                    break;
+                }
+                long lastId = ((Number) batch.get(batch.size() - 1)[0]).longValue();
+                batch = gameHistoryRepository.findScoresAfter(lastId, upToId, Limit.of(REPLAY_BATCH_SIZE));
+            }
+            recorded(upToId);
+            loaded = true;
+            System.out.println("Score distributions loaded: " + all.count() + " games, " + replayed + " replayed");
+        } catch (RuntimeException e) {
+            System.err.println("Failed to load score distributions: " + e.getMessage());
+        } finally {
+            persistLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.distribution.snapshot-interval-ms:300000}",
+            initialDelayString = "${stats.distribution.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (!loaded) {
+            return;
+        }
+        persistLock.lock();
+        try {
+            // Read before copying the counts, and only ever advanced after recording, so every game
+            // up to it is in the copy; one recorded in between may be counted again after a restart
+            long lastGameId = recordedUpTo.get();
+            List<ScoreDistribution> snapshots = new ArrayList<>();
+            snapshots.add(new ScoreDistribution(ALL, all.encode(), lastGameId));
+            byDecks.forEach((numDecks, histogram) ->
+                    snapshots.add(new ScoreDistribution(String.valueOf(numDecks), histogram.encode(), lastGameId)));
+            scoreDistributionRepository.saveAll(snapshots);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to snapshot score distributions: " + e.getMessage());
+        } finally {
+            persistLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        snapshot();
+    }
+}
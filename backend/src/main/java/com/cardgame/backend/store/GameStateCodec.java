@@ -0,0 +1,113 @@
+package com.cardgame.backend.store;
+
+import com.cardgame.backend.engine.Cards;
+import com.cardgame.backend.model.GameState;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Versioned binary encoding of a {@link GameState}, small enough to write on every guess.
+ *
+ * Layout (version 2):
+ * <pre>
+ * byte  format version
+ * byte  numDecks
+ * byte  flags (bit 0 gameOver, bit 1 won)
+ * int   score
+ * long  seed
+ * long  remaining-card mask
+ * byte[numDecks]  pile tops (Cards.NONE when eliminated)
+ * byte  move count, followed by one byte per move
+ * short owner length, followed by the owner's UTF-8 bytes
+ * int   win streak captured at start (absent in version 1, read as 0)
+ * </pre>
+ * The deck order is not stored: it is rebuilt from the seed and must agree with the mask.
+ * A blob is 30 + numDecks + moves bytes plus the owner name; the deal and the moves draw from
+ * one 52-card deck, so it is 36-40 bytes at the start and never more than 82 at the end.
+ */
+public final class GameStateCodec {
+
+    public static final byte VERSION = 2;
+
+    private static final byte VERSION_1 = 1;
+
+    private static final int FLAG_GAME_OVER = 1;
+    private static final int FLAG_WON = 2;
+
+    private GameStateCodec() {
+    }
+
+    public static byte[] encode(GameState game) {
+        byte[] owner = game.getOwner() != null
+                ? game.getOwner().getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+        int numDecks = game.getNumDecks();
+        int moveCount = game.getMoveCount();
+
+        ByteBuffer buffer = ByteBuffer.allocate(3 + 4 + 8 + 8 + numDecks + 1 + moveCount + 2 + owner.length + 4);
+        buffer.put(VERSION);
+        buffer.put((byte) numDecks);
+        buffer.put((byte) ((game.isGameOver() ? FLAG_GAME_OVER : 0) | (game.isWon() ? FLAG_WON : 0)));
+        buffer.putInt(game.getScore());
+        buffer.putLong(game.getSeed());
+        buffer.putLong(game.getRemainingMask());
+        for (int i = 0; i < numDecks; i++) {
+            buffer.put((byte) game.getPileTop(i));
+        }
+        buffer.put((byte) moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            buffer.put(game.getMove(i));
+        }
+        buffer.putShort((short) owner.length);
+        buffer.put(owner);
+        buffer.putInt(game.getWinStreak());
+        return buffer.array();
+    }
+
+    public static GameState decode(String gameId, byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        byte version = buffer.get();
+        if (version != VERSION && version != VERSION_1) {
+            throw new IllegalStateException("Unsupported game state format version " + version);
+        }
+
+        int numDecks = buffer.get();
+        int flags = buffer.get();
+        int score = buffer.getInt();
+        long seed = buffer.getLong();
+        long remainingMask = buffer.getLong();
+
+        GameState game = new GameState(numDecks, seed);
+        game.setGameId(gameId);
+
+        // Replaying the draws restores the cursor and the rank histogram
+        int drawn = Cards.DECK_SIZE - Long.bitCount(remainingMask);
+        for (int i = 0; i < drawn; i++) {
+            game.drawNextCard();
+        }
+        if (game.getRemainingMask() != remainingMask) {
+            throw new IllegalStateException("Stored deck does not match seed for game " + gameId);
+        }
+
+        for (int i = 0; i < numDecks; i++) {
+            game.setPileTop(i, buffer.get());
+        }
+        int moveCount = buffer.get();
+        for (int i = 0; i < moveCount; i++) {
+            game.restoreMove(buffer.get());
+        }
+        byte[] owner = new byte[buffer.getShort()];
+        buffer.get(owner);
+        game.setOwner(owner.length > 0 ? new String(owner, StandardCharsets.UTF_8) : null);
+        game.setWinStreak(version == VERSION_1 ? 0 : buffer.getInt());
+
+        game.setScore(score);
+        game.setGameOver((flags & FLAG_GAME_OVER) != 0);
+        game.setWon((flags & FLAG_WON) != 0);
+        game.setMessage(game.isGameOver()
+                ? "Game over. Final score: " + score
+                : "Game in progress. Choose a deck and guess high or low.");
+        return game;
+    }
+}
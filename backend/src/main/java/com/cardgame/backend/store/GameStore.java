@@ -0,0 +1,21 @@
+package com.cardgame.backend.store;
+
+import com.cardgame.backend.model.GameState;
+
+/**
+ * Holds in-progress games keyed by their game id, so the game API does not depend on the
+ * HTTP session or on which backend instance served the previous request.
+ */
+public interface GameStore {
+
+    /** Returns the game with this id, or null if it does not exist or has been evicted. */
+    GameState get(String gameId);
+
+    /** Inserts or replaces the game under {@link GameState#getGameId()}. */
+    void save(GameState game);
+
+    void remove(String gameId);
+
+    /** Number of games currently held. */
+    int size();
+}
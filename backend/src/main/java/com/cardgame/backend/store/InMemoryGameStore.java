@@ -0,0 +1,93 @@
+package com.cardgame.backend.store;
+
+import com.cardgame.backend.model.GameState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default {@link GameStore} ({@code game.store.type=memory}): a concurrent map with idle-TTL and size-based eviction.
+ * Games untouched for longer than the TTL are swept periodically; when the map grows past
+ * its capacity the least recently used tenth of it is dropped in one pass.
+ */
+@Component
+@ConditionalOnProperty(name = "game.store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryGameStore implements GameStore {
+
+    private final ConcurrentHashMap<String, Entry> games = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxGames;
+
+    public InMemoryGameStore(@Value("${game.store.ttl-minutes:30}") long ttlMinutes,
+                             @Value("${game.store.max-games:10000}") int maxGames) {
+        this.ttlMillis = ttlMinutes * 60_000L;
+        this.maxGames = maxGames;
+    }
+
+    @Override
+    public GameState get(String gameId) {
+        if (gameId == null) {
+            return null;
+        }
+        Entry entry = games.get(gameId);
+        if (entry == null) {
+            return null;
+        }
+        entry.lastAccess = System.currentTimeMillis();
+        return entry.game;
+    }
+
+    @Override
+    public void save(GameState game) {
+        Entry previous = games.put(game.getGameId(), new Entry(game));
+        if (previous == null && games.size() > maxGames) {
+            evictLeastRecentlyUsed(Math.max(1, maxGames / 10));
+        }
+    }
+
+    @Override
+    public void remove(String gameId) {
+        if (gameId != null) {
+            games.remove(gameId);
+        }
+    }
+
+    @Override
+    public int size() {
+        return games.size();
+    }
+
+    @Scheduled(fixedDelayString = "${game.store.sweep-interval-ms:60000}")
+    public void evictIdleGames() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        games.entrySet().removeIf(e -> e.getValue().lastAccess < cutoff);
+    }
+
+    private void evictLeastRecentlyUsed(int count) {
+        // Snapshot access times first; they keep changing while we sort
+        List<Map.Entry<String, Long>> byAccess = new ArrayList<>(games.size());
+        for (Map.Entry<String, Entry> e : games.entrySet()) {
+            byAccess.add(Map.entry(e.getKey(), e.getValue().lastAccess));
+        }
+        byAccess.sort(Map.Entry.comparingByValue());
+        for (int i = 0; i < count && i < byAccess.size(); i++) {
+            games.remove(byAccess.get(i).getKey());
+        }
+    }
+
+    private static final class Entry {
+        final GameState game;
+        volatile long lastAccess;
+
+        Entry(GameState game) {
+            this.game = game;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+}
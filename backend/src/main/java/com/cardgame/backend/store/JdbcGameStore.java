@@ -0,0 +1,84 @@
+package com.cardgame.backend.store;
+
+import com.cardgame.backend.model.GameState;
+import com.cardgame.backend.model.StoredGame;
+import com.cardgame.backend.repository.StoredGameRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@link GameStore} backed by the {@code game_states} table, so any backend instance can serve
+ * any game and games survive a node restart. Each game is a small {@link GameStateCodec} blob
+ * written with optimistic versioning: a save based on a stale read fails with
+ * {@link OptimisticLockingFailureException} instead of overwriting a newer move.
+ *
+ * Enabled with {@code game.store.type=jdbc}.
+ */
+@Component
+@ConditionalOnProperty(name = "game.store.type", havingValue = "jdbc")
+public class JdbcGameStore implements GameStore {
+
+    private final StoredGameRepository storedGameRepository;
+    private final long ttlMinutes;
+
+    public JdbcGameStore(StoredGameRepository storedGameRepository,
+                         @Value("${game.store.ttl-minutes:30}") long ttlMinutes) {
+        this.storedGameRepository = storedGameRepository;
+        this.ttlMinutes = ttlMinutes;
+    }
+
+    @Override
+    public GameState get(String gameId) {
+        if (gameId == null) {
+            return null;
+        }
+        return storedGameRepository.findById(gameId)
+                .map(stored -> {
+                    GameState game = GameStateCodec.decode(stored.getGameId(), stored.getState());
+                    game.setStoreVersion(stored.getVersion());
+                    return game;
+                })
+                .orElse(null);
+    }
+
+    @Override
+    public void save(GameState game) {
+        byte[] state = GameStateCodec.encode(game);
+
+        if (game.getStoreVersion() == null) {
+            StoredGame saved = storedGameRepository.save(new StoredGame(game.getGameId(), state));
+            game.setStoreVersion(saved.getVersion());
+            return;
+        }
+
+        int updated = storedGameRepository.updateIfVersion(
+                game.getGameId(), game.getStoreVersion(), state, LocalDateTime.now());
+        if (updated == 0) {
+            throw new OptimisticLockingFailureException(
+                    "Game " + game.getGameId() + " was modified concurrently");
+        }
+        game.setStoreVersion(game.getStoreVersion() + 1);
+    }
+
+    @Override
+    public void remove(String gameId) {
+        if (gameId != null) {
+            storedGameRepository.deleteById(gameId);
+        }
+    }
+
+    @Override
+    public int size() {
+        return (int) storedGameRepository.count();
+    }
+
+    @Scheduled(fixedDelayString = "${game.store.sweep-interval-ms:60000}")
+    public void evictIdleGames() {
+        storedGameRepository.deleteIdleSince(LocalDateTime.now().minusMinutes(ttlMinutes));
+    }
+}
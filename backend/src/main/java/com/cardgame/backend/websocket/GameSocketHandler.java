@@ -0,0 +1,147 @@
+package com.cardgame.backend.websocket;
+
+import com.cardgame.backend.model.GameState;
+import com.cardgame.backend.model.ProbabilityInfo;
+import com.cardgame.backend.service.GameService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Long-lived game channel. The client sends moves and the server pushes the resulting state,
+ * the updated probabilities and, when it happens, the game-over event, so one move costs one
+ * small frame instead of up to three HTTP exchanges.
+ *
+ * Client to server:
+ * <pre>
+ * { "type": "guess", "deckNumber": 3, "guess": "h" }
+ * { "type": "state" }
+ * </pre>
+ * Server to client: {@code state}, {@code probabilities}, {@code gameOver} and {@code error}
+ * messages, each with a {@code type} field.
+ */
+@Component
+public class GameSocketHandler extends TextWebSocketHandler {
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        String username = username(session);
+        GameState game = gameService.getGame(gameId(session), username);
+        if (game == null) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Unknown game"));
+            return;
+        }
+
+        sendState(session, game);
+        sendProbabilities(session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        JsonNode request;
+        try {
+            request = objectMapper.readTree(message.getPayload());
+        } catch (IOException e) {
+            sendError(session, "Malformed message");
+            return;
+        }
+
+        String type = request.path("type").asText();
+        switch (type) {
+            case "guess":
+                handleGuess(session, request.path("deckNumber").asInt(), request.path("guess").asText());
+                break;
+            case "state":
+                GameState game = gameService.getGame(gameId(session), username(session));
+                if (game == null) {
+                    sendError(session, "No game in progress");
+                } else {
+                    sendState(session, game);
+                }
+                break;
+            default:
+                sendError(session, "Unknown message type: " + type);
+        }
+    }
+
+    private void handleGuess(WebSocketSession session, int deckNumber, String guess) throws IOException {
+        GameState game;
+        try {
+            game = gameService.processGuess(gameId(session), username(session), deckNumber, guess);
+        } catch (IllegalStateException e) {
+            sendError(session, e.getMessage());
+            return;
+        } catch (OptimisticLockingFailureException e) {
+            sendError(session, "Game was updated elsewhere; refresh the state");
+            return;
+        }
+
+        sendState(session, game);
+        if (game.isGameOver()) {
+            Map<String, Object> gameOver = new HashMap<>();
+            gameOver.put("type", "gameOver");
+            gameOver.put("score", game.getScore());
+            gameOver.put("won", game.isWon());
+            send(session, gameOver);
+        } else {
+            sendProbabilities(session);
+        }
+    }
+
+    private void sendState(WebSocketSession session, GameState game) throws IOException {
+        Map<String, Object> state = new HashMap<>();
+        state.put("type", "state");
+        state.put("gameState", game);
+        state.put("currentWinStreak", game.getWinStreak());
+        send(session, state);
+    }
+
+    private void sendProbabilities(WebSocketSession session) throws IOException {
+        Map<Integer, ProbabilityInfo> probabilities =
+                gameService.calculateAllProbabilities(gameId(session), username(session));
+        if (probabilities == null) {
+            return;
+        }
+        Map<String, Object> update = new HashMap<>();
+        update.put("type", "probabilities");
+        update.put("probabilities", probabilities);
+        send(session, update);
+    }
+
+    private void sendError(WebSocketSession session, String message) throws IOException {
+        Map<String, Object> error = new HashMap<>();
+        error.put("type", "error");
+        error.put("message", message);
+        send(session, error);
+    }
+
+    private void send(WebSocketSession session, Object payload) throws IOException {
+        if (session.isOpen()) {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(payload)));
+        }
+    }
+
+    private static String username(WebSocketSession session) {
+        return (String) session.getAttributes().get(JwtHandshakeInterceptor.USERNAME_ATTRIBUTE);
+    }
+
+    private static String gameId(WebSocketSession session) {
+        return (String) session.getAttributes().get(JwtHandshakeInterceptor.GAME_ID_ATTRIBUTE);
+    }
+}
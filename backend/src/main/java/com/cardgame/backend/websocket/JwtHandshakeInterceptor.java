@@ -0,0 +1,59 @@
+package com.cardgame.backend.websocket;
+
+import com.cardgame.backend.security.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Authenticates the WebSocket handshake. Browsers cannot set an Authorization header on a
+ * WebSocket, so the JWT and the game id come as query parameters:
+ * {@code /api/game/ws?token=<jwt>&gameId=<id>}. The JWT is checked once per connection.
+ */
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USERNAME_ATTRIBUTE = "username";
+    public static final String GAME_ID_ATTRIBUTE = "gameId";
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        Map<String, String> params = UriComponentsBuilder.fromUri(request.getURI())
+                .build()
+                .getQueryParams()
+                .toSingleValueMap();
+
+        String token = params.get("token");
+        String gameId = params.get("gameId");
+
+        Claims claims = StringUtils.hasText(token) && StringUtils.hasText(gameId)
+                ? jwtUtils.verifyJwtToken(token)
+                : null;
+        if (claims == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        attributes.put(USERNAME_ATTRIBUTE, claims.getSubject());
+        attributes.put(GAME_ID_ATTRIBUTE, gameId);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.cardgame.backend.leaderboard;
+
+import com.cardgame.backend.dto.LeaderboardEntry;
+import com.cardgame.backend.leaderboard.LeaderboardResponseCache.CachedBoard;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderboardResponseCacheTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void overlayMatchesSerializingWithTheFlagSet() throws Exception {
+		List<LeaderboardEntry> entries = List.of(
+				new LeaderboardEntry(1L, "alice", 900, 4, false, true, "🎴"),
+				new LeaderboardEntry(2L, "b\"currentUser\":false", 700, 2, false, false, "🃏"),
+				new LeaderboardEntry(3L, "carol", 500, 1, false, true, "🎴"));
+		CachedBoard board = CachedBoard.of(objectMapper, 7, "all.100", entries);
+
+		assertThat(board.bodyFor(null)).isEqualTo(objectMapper.writeValueAsBytes(entries));
+		assertThat(board.bodyFor("nobody")).isEqualTo(objectMapper.writeValueAsBytes(entries));
+		assertThat(board.etagFor("nobody")).isEqualTo("\"lb-7-all.100\"");
+
+		for (int i = 0; i < entries.size(); i++) {
+			List<LeaderboardEntry> flagged = new ArrayList<>();
+			for (int j = 0; j < entries.size(); j++) {
+				LeaderboardEntry entry = entries.get(j);
+				flagged.add(new LeaderboardEntry(entry.getRank(), entry.getUsername(), entry.getScore(),
+						entry.getLongestStreak(), i == j, entry.isStatsPublic(), entry.getAvatar()));
+			}
+			String username = entries.get(i).getUsername();
+			assertThat(board.bodyFor(username)).isEqualTo(objectMapper.writeValueAsBytes(flagged));
+			assertThat(board.etagFor(username)).isEqualTo("\"lb-7-all.100-" + i + "\"");
+		}
+	}
+
+	@Test
+	void emptyBoardIsAnEmptyArray() {
+		CachedBoard board = CachedBoard.of(objectMapper, 0, "decks8.10", List.of());
+		assertThat(new String(board.bodyFor("alice"))).isEqualTo("[]");
+	}
+}
@@ -0,0 +1,61 @@
+package com.cardgame.backend.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStatisticTreeTests {
+
+	@Test
+	void matchesSortedListUnderRandomUpdates() {
+		OrderStatisticTree tree = new OrderStatisticTree();
+		Map<Long, Integer> scores = new HashMap<>();
+		Random random = new Random(42);
+
+		for (int step = 0; step < 5000; step++) {
+			long id = random.nextInt(300);
+			Integer old = scores.remove(id);
+			if (old != null) {
+				assertThat(tree.remove(old, id)).isTrue();
+			}
+			if (random.nextInt(4) > 0) {
+				int score = random.nextInt(50);
+				tree.insert(score, id);
+				scores.put(id, score);
+			}
+		}
+
+		List<Long> expected = new ArrayList<>(scores.keySet());
+		expected.sort(Comparator.<Long>comparingInt(scores::get).reversed().thenComparing(Comparator.naturalOrder()));
+
+		assertThat(tree.size()).isEqualTo(expected.size());
+		assertThat(tree.range(0, expected.size())).isEqualTo(expected);
+		assertThat(tree.range(10, 7)).isEqualTo(expected.subList(10, 17));
+		for (int i = 0; i < expected.size(); i++) {
+			long id = expected.get(i);
+			assertThat(tree.countBefore(scores.get(id), id)).isEqualTo(i);
+		}
+	}
+
+	@Test
+	void countHigherGivesCompetitionRanks() {
+		OrderStatisticTree tree = new OrderStatisticTree();
+		tree.insert(500, 1);
+		tree.insert(300, 2);
+		tree.insert(300, 3);
+		tree.insert(100, 4);
+
+		assertThat(tree.countHigher(500)).isZero();
+		assertThat(tree.countHigher(300)).isEqualTo(1);
+		assertThat(tree.countHigher(100)).isEqualTo(3);
+		assertThat(tree.countHigher(0)).isEqualTo(4);
+		assertThat(tree.remove(300, 9)).isFalse();
+	}
+}
@@ -0,0 +1,38 @@
+package com.cardgame.backend.load;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the whole API with realistic sessions (see {@link LoadDriver} for the session and its
+ * {@code loadtest.*} settings) against the app on embedded H2. Reports a latency histogram per
+ * endpoint with throughput and error rate, and fails when an endpoint's p99 or the error rate
+ * goes over its threshold. Run with {@code mvn verify -Ploadtest}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:loadtest",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class GameSessionLoadIT {
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	void sessionsStayWithinThresholds() {
+		try (LoadDriver driver = new LoadDriver(port).run()) {
+			System.out.println(driver.report());
+
+			List<String> failures = new ArrayList<>(driver.latencyFailures());
+			failures.addAll(driver.errorFailures());
+			assertThat(failures).isEmpty();
+		}
+	}
+}
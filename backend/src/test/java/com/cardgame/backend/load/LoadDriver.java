@@ -0,0 +1,284 @@
+package com.cardgame.backend.load;
+
+import com.cardgame.backend.stats.LogLinearHistogram;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays realistic sessions against a running backend, one virtual thread per player: guest
+ * login, start, guesses each preceded by a probability fetch, save, then a leaderboard read
+ * with the player's token. Keeps a latency histogram, throughput and error rate per endpoint.
+ * <p>
+ * Tuned with system properties: {@code loadtest.players} (default 2000),
+ * {@code loadtest.sessions} per player (1), {@code loadtest.ramp-up-seconds} over which
+ * players join (10), {@code loadtest.think-time-ms} a player pauses before each guess on
+ * average (250), {@code loadtest.warmup-sessions} played back to back and left out of the
+ * figures (200), {@code loadtest.p99-ms} for every endpoint (500) or
+ * {@code loadtest.p99-ms.<endpoint>} for one, and {@code loadtest.max-error-rate} (0.001).
+ */
+final class LoadDriver implements AutoCloseable {
+
+	static final String[] ENDPOINTS = {"guest", "start", "probability", "guess", "save", "leaderboard"};
+	private static final int[] HISTOGRAM_BANDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000};
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+	private final String baseUrl;
+	private final int players = Integer.getInteger("loadtest.players", 2000);
+	private final int sessions = Integer.getInteger("loadtest.sessions", 1);
+	private final long thinkTimeMillis = Long.getLong("loadtest.think-time-ms", 250);
+	// The client gets its own executor: closing the players' one would shut it down mid-flight
+	private final ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+	private final HttpClient client = HttpClient.newBuilder()
+			.executor(clientExecutor)
+			.connectTimeout(Duration.ofSeconds(10))
+			.build();
+
+	// Off during warm-up: nothing is recorded and nobody thinks
+	private volatile boolean measuring;
+	private final AtomicLong failedSessions = new AtomicLong();
+	private double seconds;
+
+	LoadDriver(int port) {
+		this.baseUrl = "http://localhost:" + port;
+		for (String name : ENDPOINTS) {
+			endpoints.put(name, new Endpoint());
+		}
+	}
+
+	/** Warms up the server, then plays every player's sessions and waits for the last one. */
+	LoadDriver run() {
+		try (ExecutorService warmupExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < Integer.getInteger("loadtest.warmup-sessions", 200); i++) {
+				warmupExecutor.submit(() -> {
+					playSession();
+					return null;
+				});
+			}
+		}
+
+		measuring = true;
+		long rampUpNanos = TimeUnit.SECONDS.toNanos(Long.getLong("loadtest.ramp-up-seconds", 10));
+		long start = System.nanoTime();
+		try (ExecutorService playerExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < players; i++) {
+				long delay = rampUpNanos * i / players;
+				playerExecutor.submit(() -> {
+					LockSupport.parkNanos(delay);
+					for (int s = 0; s < sessions; s++) {
+						try {
+							playSession();
+						} catch (Exception e) {
+							failedSessions.incrementAndGet();
+							return;
+						}
+					}
+				});
+			}
+		}
+		seconds = (System.nanoTime() - start) / 1e9;
+		return this;
+	}
+
+	/** Endpoints over their p99 threshold. */
+	List<String> latencyFailures() {
+		long defaultP99 = Long.getLong("loadtest.p99-ms", 500);
+		List<String> failures = new ArrayList<>();
+		endpoints.forEach((name, endpoint) -> {
+			long p99 = Long.getLong("loadtest.p99-ms." + name, defaultP99);
+			if (endpoint.latencyMicros.count() > 0 && endpoint.latencyMicros.valueAtPercentile(99) > p99 * 1000) {
+				failures.add(name + " p99 over " + p99 + " ms");
+			}
+		});
+		return failures;
+	}
+
+	/** Endpoints over the error-rate threshold, with the first error each one saw. */
+	List<String> errorFailures() {
+		double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.001"));
+		List<String> failures = new ArrayList<>();
+		endpoints.forEach((name, endpoint) -> {
+			if (endpoint.errorRate() > maxErrorRate) {
+				failures.add(name + " error rate " + String.format("%.4f", endpoint.errorRate())
+						+ " over " + maxErrorRate + ", first: " + endpoint.firstError);
+			}
+		});
+		return failures;
+	}
+
+	double requestsPerSecond() {
+		return endpoints.values().stream().mapToLong(Endpoint::requests).sum() / seconds;
+	}
+
+	double requestsPerSecond(String endpoint) {
+		return endpoints.get(endpoint).requests() / seconds;
+	}
+
+	double percentileMillis(String endpoint, double percentile) {
+		LogLinearHistogram latency = endpoints.get(endpoint).latencyMicros;
+		return latency.count() == 0 ? 0 : latency.valueAtPercentile(percentile) / 1000.0;
+	}
+
+	long failedSessions() {
+		return failedSessions.get();
+	}
+
+	String report() {
+		StringBuilder out = new StringBuilder();
+		out.append(String.format("%nLoad test: %d players x %d sessions in %.1f s, %d failed sessions, %.0f req/s%n",
+				players, sessions, seconds, failedSessions.get(), requestsPerSecond()));
+		out.append(String.format("%-12s %9s %9s %8s %9s %9s %9s %9s%n",
+				"endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+		endpoints.forEach((name, endpoint) -> out.append(String.format(
+				"%-12s %9d %9.0f %7.2f%% %9.1f %9.1f %9.1f %9.1f%n",
+				name, endpoint.latencyMicros.count(), requestsPerSecond(name), endpoint.errorRate() * 100,
+				percentileMillis(name, 50), percentileMillis(name, 90), percentileMillis(name, 99),
+				percentileMillis(name, 100))));
+
+		out.append(String.format("%nlatency histogram (requests per band, ms)%n%-12s", ""));
+		for (int band : HISTOGRAM_BANDS_MS) {
+			out.append(String.format(" %7s", "<" + band));
+		}
+		out.append(String.format(" %7s%n", ">=" + HISTOGRAM_BANDS_MS[HISTOGRAM_BANDS_MS.length - 1]));
+		endpoints.forEach((name, endpoint) -> {
+			out.append(String.format("%-12s", name));
+			long below = 0;
+			for (int band : HISTOGRAM_BANDS_MS) {
+				long upTo = endpoint.latencyMicros.countBelow(band * 1000);
+				out.append(String.format(" %7d", upTo - below));
+				below = upTo;
+			}
+			out.append(String.format(" %7d%n", endpoint.latencyMicros.count() - below));
+		});
+		return out.toString();
+	}
+
+	@Override
+	public void close() {
+		clientExecutor.close();
+	}
+
+	private void playSession() throws Exception {
+		JsonNode auth = call("guest", post("/api/auth/guest", "{}", null));
+		String token = auth.get("token").asText();
+
+		int numDecks = ThreadLocalRandom.current().nextInt(6, 11);
+		JsonNode game = call("start", post("/api/game/start", "{\"numDecks\":" + numDecks + "}", token));
+		String gameId = game.get("gameId").asText();
+
+		while (!game.get("gameOver").asBoolean()) {
+			think();
+			int pile = livePile(game.get("deckValues"));
+			JsonNode odds = call("probability",
+					get("/api/game/probability/" + pile, token).header("X-Game-Id", gameId));
+			String guess = odds.get("higher").asInt() >= odds.get("lower").asInt() ? "high" : "low";
+			game = call("guess", post("/api/game/guess",
+					"{\"deckNumber\":" + (pile + 1) + ",\"guess\":\"" + guess + "\"}", token)
+					.header("X-Game-Id", gameId)).get("gameState");
+		}
+
+		call("save", post("/api/game/save", "{\"score\":" + game.get("score").asInt()
+				+ ",\"numDecks\":" + numDecks + ",\"won\":" + game.get("won").asBoolean() + "}", token)
+				.header("X-Game-Id", gameId));
+		call("leaderboard", get("/api/leaderboard?limit=100", token));
+	}
+
+	// Players pause between moves: on average the think time, up to twice it
+	private void think() throws InterruptedException {
+		if (measuring && thinkTimeMillis > 0) {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(2 * thinkTimeMillis));
+		}
+	}
+
+	// A random pile that is still in play
+	private static int livePile(JsonNode deckValues) {
+		List<Integer> live = new ArrayList<>();
+		for (int i = 0; i < deckValues.size(); i++) {
+			if (!"XX".equals(deckValues.get(i).asText())) {
+				live.add(i);
+			}
+		}
+		return live.get(ThreadLocalRandom.current().nextInt(live.size()));
+	}
+
+	private HttpRequest.Builder get(String path, String token) {
+		return request(path, token).GET();
+	}
+
+	private HttpRequest.Builder post(String path, String body, String token) {
+		return request(path, token)
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body));
+	}
+
+	private HttpRequest.Builder request(String path, String token) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.timeout(Duration.ofSeconds(30));
+		if (token != null) {
+			builder.header("Authorization", "Bearer " + token);
+		}
+		return builder;
+	}
+
+	// Times one request against its endpoint; anything but a 2xx is an error and ends the session
+	private JsonNode call(String name, HttpRequest.Builder request) throws Exception {
+		Endpoint endpoint = endpoints.get(name);
+		long start = System.nanoTime();
+		HttpResponse<byte[]> response;
+		try {
+			response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+		} catch (Exception e) {
+			if (measuring) {
+				endpoint.fail(e.toString());
+			}
+			throw e;
+		}
+		if (response.statusCode() / 100 != 2) {
+			if (measuring) {
+				endpoint.fail("HTTP " + response.statusCode());
+			}
+			throw new IllegalStateException(name + " answered " + response.statusCode());
+		}
+		if (measuring) {
+			endpoint.latencyMicros.record((int) Math.min((System.nanoTime() - start) / 1000, Integer.MAX_VALUE));
+		}
+		return objectMapper.readTree(response.body());
+	}
+
+	private static final class Endpoint {
+		final LogLinearHistogram latencyMicros = new LogLinearHistogram();
+		final AtomicLong errors = new AtomicLong();
+		volatile String firstError;
+
+		void fail(String error) {
+			if (errors.getAndIncrement() == 0) {
+				firstError = error;
+			}
+		}
+
+		long requests() {
+			return latencyMicros.count() + errors.get();
+		}
+
+		double errorRate() {
+			long total = requests();
+			return total == 0 ? 0 : (double) errors.get() / total;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.cardgame.backend.load;
+
+import com.cardgame.backend.BackendApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the two request thread modes: boots the app with platform threads, then with
+ * virtual threads ({@code spring.threads.virtual.enabled}), plays the same load against each
+ * (see {@link LoadDriver} for the {@code loadtest.*} settings) and prints both reports and a
+ * side-by-side summary. The database is whatever application.properties resolves to, so
+ * setting the SPRING_DATASOURCE_* variables compares the modes against PostgreSQL, and
+ * {@code -Dserver.tomcat.threads.max} sizes the platform pool like a small instance. Fails only
+ * if a mode goes over the error-rate threshold. Run with {@code mvn verify -Pthreadmodes}.
+ */
+class ThreadModeLoadIT {
+
+	@Test
+	void comparePlatformAndVirtualThreads() {
+		LoadDriver platform = play(false);
+		LoadDriver virtual = play(true);
+
+		StringBuilder summary = new StringBuilder(String.format("%nThread modes%n%-12s %12s %12s %12s %12s%n",
+				"endpoint", "platform/s", "virtual/s", "platform p99", "virtual p99"));
+		for (String endpoint : LoadDriver.ENDPOINTS) {
+			summary.append(String.format("%-12s %12.0f %12.0f %9.1f ms %9.1f ms%n", endpoint,
+					platform.requestsPerSecond(endpoint), virtual.requestsPerSecond(endpoint),
+					platform.percentileMillis(endpoint, 99), virtual.percentileMillis(endpoint, 99)));
+		}
+		summary.append(String.format("%-12s %12.0f %12.0f%nfailed sessions: platform %d, virtual %d%n", "total",
+				platform.requestsPerSecond(), virtual.requestsPerSecond(),
+				platform.failedSessions(), virtual.failedSessions()));
+		System.out.println(summary);
+
+		List<String> failures = new ArrayList<>();
+		platform.errorFailures().forEach(failure -> failures.add("platform: " + failure));
+		virtual.errorFailures().forEach(failure -> failures.add("virtual: " + failure));
+		assertThat(failures).isEmpty();
+	}
+
+	private static LoadDriver play(boolean virtualThreads) {
+		// Command-line arguments outrank application.properties and the VIRTUAL_THREADS_ENABLED default
+		try (ConfigurableApplicationContext app = new SpringApplicationBuilder(BackendApplication.class)
+				.run("--server.port=0", "--spring.threads.virtual.enabled=" + virtualThreads)) {
+			int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+			try (LoadDriver driver = new LoadDriver(port).run()) {
+				System.out.println((virtualThreads ? "Virtual" : "Platform") + " threads:" + driver.report());
+				return driver;
+			}
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.cardgame.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTests {
+
+	private static final long HOUR_MS = 3_600_000L;
+
+	@Test
+	void expiredTokensAreMissesAndSweptAway() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(100);
+		long now = System.currentTimeMillis();
+		cache.put("live", user("alice"), now + HOUR_MS);
+		cache.put("expired", user("alice"), now - 1);
+		cache.put("stale", user("bob"), now - 1);
+
+		assertThat(cache.get("live").getUsername()).isEqualTo("alice");
+		assertThat(cache.get("expired")).isNull();
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.evictExpiredTokens();
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.get("live")).isNotNull();
+	}
+
+	@Test
+	void goingOverTheLimitEvictsTheLeastRecentlyUsed() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(10);
+		long expiresAt = System.currentTimeMillis() + HOUR_MS;
+		for (int i = 0; i < 10; i++) {
+			cache.put("t" + i, user("user" + i), expiresAt);
+		}
+		assertThat(cache.get("t0")).isNotNull();
+
+		// Trims to 90% of the limit: the two oldest untouched tokens go, the one just read stays
+		cache.put("t10", user("user10"), expiresAt);
+		assertThat(cache.size()).isEqualTo(9);
+		assertThat(cache.get("t0")).isNotNull();
+		assertThat(cache.get("t1")).isNull();
+		assertThat(cache.get("t2")).isNull();
+		assertThat(cache.get("t3")).isNotNull();
+		assertThat(cache.get("t10")).isNotNull();
+	}
+
+	@Test
+	void expiredTokensAreEvictedBeforeLiveOnes() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(10);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 10; i++) {
+			cache.put("t" + i, user("user" + i), i < 5 ? now + HOUR_MS : now - 1);
+		}
+
+		cache.put("t10", user("user10"), now + HOUR_MS);
+		assertThat(cache.size()).isEqualTo(6);
+		for (int i = 0; i < 5; i++) {
+			assertThat(cache.get("t" + i)).isNotNull();
+		}
+	}
+
+	@Test
+	void evictUserDropsOnlyThatUsersTokens() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(100);
+		long expiresAt = System.currentTimeMillis() + HOUR_MS;
+		cache.put("a1", user("alice"), expiresAt);
+		cache.put("a2", user("alice"), expiresAt);
+		cache.put("b1", user("bob"), expiresAt);
+
+		cache.evictUser("alice");
+		assertThat(cache.get("a1")).isNull();
+		assertThat(cache.get("a2")).isNull();
+		assertThat(cache.get("b1")).isNotNull();
+	}
+
+	private static UserDetailsImpl user(String username) {
+		return new UserDetailsImpl(1L, username, username + "@example.com", "", false);
+	}
+}
@@ -0,0 +1,98 @@
+package com.cardgame.backend.service;
+
+import com.cardgame.backend.model.User;
+import com.cardgame.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs UserRepository.applyResults, the native UPDATE, on H2: one call for a whole run of
+ * games must leave the same row as one call per game, and as the old per-game
+ * read-modify-write.
+ */
+@DataJpaTest
+class GameResultServiceTests {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Test
+	void coalescedOutcomeMatchesApplyingResultsOneByOne() {
+		Random random = new Random(7);
+		for (int trial = 0; trial < 200; trial++) {
+			int current = random.nextInt(5);
+			int longest = current + random.nextInt(5);
+			int best = random.nextInt(1000);
+			List<GameResult> games = new ArrayList<>();
+			for (int i = 1 + random.nextInt(8); i > 0; i--) {
+				games.add(new GameResult(1L, random.nextInt(100), 6, random.nextBoolean(), null, null, LocalDateTime.now()));
+			}
+
+			// What the old per-game read-modify-write did
+			int expectedCurrent = current;
+			int expectedLongest = longest;
+			int expectedScore = best;
+			for (GameResult game : games) {
+				expectedScore += game.score();
+				expectedCurrent = game.won() ? expectedCurrent + 1 : 0;
+				expectedLongest = Math.max(expectedLongest, expectedCurrent);
+			}
+
+			Long batched = user("batched" + trial, best, current, longest);
+			Long oneByOne = user("single" + trial, best, current, longest);
+			apply(batched, games);
+			for (GameResult game : games) {
+				apply(oneByOne, List.of(game));
+			}
+			entityManager.clear();
+
+			User batchedRow = userRepository.findById(batched).orElseThrow();
+			User oneByOneRow = userRepository.findById(oneByOne).orElseThrow();
+			for (User row : List.of(batchedRow, oneByOneRow)) {
+				assertThat(row.getBestScore()).isEqualTo(expectedScore);
+				assertThat(row.getCurrentWinStreak()).isEqualTo(expectedCurrent);
+				assertThat(row.getLongestWinStreak()).isEqualTo(expectedLongest);
+			}
+		}
+	}
+
+	@Test
+	void missingStreaksCountAsZero() {
+		Long id = user("fresh", null, null, null);
+		apply(id, List.of(
+				new GameResult(id, 10, 7, true, null, null, LocalDateTime.now()),
+				new GameResult(id, 20, 7, true, null, null, LocalDateTime.now())));
+		entityManager.clear();
+
+		User row = userRepository.findById(id).orElseThrow();
+		assertThat(row.getBestScore()).isEqualTo(30);
+		assertThat(row.getCurrentWinStreak()).isEqualTo(2);
+		assertThat(row.getLongestWinStreak()).isEqualTo(2);
+	}
+
+	private Long user(String username, Integer bestScore, Integer current, Integer longest) {
+		User user = new User(username, username + "@example.com", "password");
+		user.setBestScore(bestScore);
+		user.setCurrentWinStreak(current);
+		user.setLongestWinStreak(longest);
+		return entityManager.persistAndFlush(user).getId();
+	}
+
+	private void apply(Long userId, List<GameResult> games) {
+		GameResultService.Outcome outcome = GameResultService.Outcome.of(games);
+		userRepository.applyResults(userId, outcome.scoreSum(), outcome.leadingWins(), outcome.trailingWins(),
+				outcome.maxRun(), outcome.hadLoss(), games.get(0).numDecks());
+	}
+}
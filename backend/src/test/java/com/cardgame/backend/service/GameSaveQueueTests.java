@@ -0,0 +1,169 @@
+package com.cardgame.backend.service;
+
+import com.cardgame.backend.leaderboard.LeaderboardIndex;
+import com.cardgame.backend.stats.ScoreDistributions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameSaveQueueTests {
+
+	private final List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+	private final AtomicInteger saveCalls = new AtomicInteger();
+	private GameSaveQueue queue;
+
+	@AfterEach
+	void stop() throws InterruptedException {
+		if (queue != null) {
+			queue.shutdown();
+		}
+	}
+
+	@Test
+	void fullQueueKeepsEachUsersResultsInOrder() throws Exception {
+		CountDownLatch gate = new CountDownLatch(1);
+		queue = start(2, 1, 3, 10, new GameResultService() {
+			@Override
+			public SavedGames saveResults(List<GameResult> results) {
+				try {
+					gate.await();
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+				results.forEach(result -> written.add(result.score()));
+				return new SavedGames(List.of(), List.of(), 0);
+			}
+		}, new LeaderboardIndex());
+
+		// The writer holds one result and the queue two; the rest wait for room, in order
+		Thread opener = new Thread(() -> {
+			sleep(200);
+			gate.countDown();
+		});
+		opener.start();
+		List<Integer> submitted = new ArrayList<>();
+		for (int score = 0; score < 20; score++) {
+			queue.submit(result(score, score % 3 != 0), 0);
+			submitted.add(score);
+		}
+
+		awaitUntil(() -> queue.pendingWinStreak(1L) == null);
+		assertThat(written).containsExactlyElementsOf(submitted);
+	}
+
+	@Test
+	void failedResultsAreRetriedUntilWritten() throws Exception {
+		queue = start(10, 10, 5, 100, new GameResultService() {
+			@Override
+			public SavedGames saveResults(List<GameResult> results) {
+				if (saveCalls.incrementAndGet() <= 2) {
+					throw new IllegalStateException("database unavailable");
+				}
+				results.forEach(result -> written.add(result.score()));
+				return new SavedGames(List.of(), List.of(), 0);
+			}
+		}, new LeaderboardIndex());
+
+		assertThat(queue.submit(result(42, true), 3)).isEqualTo(4);
+		awaitUntil(() -> queue.retryingCount() == 1);
+		// Still pending, so new games and stats keep seeing it
+		assertThat(queue.pendingWinStreak(1L)).isEqualTo(4);
+		assertThat(queue.pendingResults(1L)).extracting(GameResult::score).containsExactly(42);
+
+		awaitUntil(() -> queue.pendingWinStreak(1L) == null);
+		assertThat(written).containsExactly(42);
+		assertThat(queue.pendingResults(1L)).isEmpty();
+		assertThat(queue.retryingCount()).isZero();
+		assertThat(queue.failedCount()).isZero();
+	}
+
+	@Test
+	void resultsAreCountedAsFailedAfterTheLastAttempt() throws Exception {
+		queue = start(10, 10, 3, 10, new GameResultService() {
+			@Override
+			public SavedGames saveResults(List<GameResult> results) {
+				saveCalls.incrementAndGet();
+				throw new IllegalStateException("constraint violation");
+			}
+		}, new LeaderboardIndex());
+
+		queue.submit(result(7, false), 0);
+		awaitUntil(() -> queue.failedCount() == 1);
+		assertThat(saveCalls.get()).isEqualTo(3);
+		assertThat(queue.retryingCount()).isZero();
+		assertThat(queue.pendingWinStreak(1L)).isNull();
+	}
+
+	@Test
+	void leaderboardFailureDoesNotWriteTheBatchAgain() throws Exception {
+		CountDownLatch gate = new CountDownLatch(1);
+		queue = start(10, 10, 3, 10, new GameResultService() {
+			@Override
+			public SavedGames saveResults(List<GameResult> results) {
+				try {
+					gate.await();
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+				results.forEach(result -> written.add(result.score()));
+				return new SavedGames(List.of(), List.of(), 0);
+			}
+		}, new LeaderboardIndex() {
+			@Override
+			public void updateDifficulty(int numDecks, Long userId, int score) {
+				throw new IllegalStateException("index broken");
+			}
+		});
+
+		queue.submit(result(1, true), 0);
+		queue.submit(result(2, true), null);
+		queue.submit(result(3, true), null);
+		gate.countDown();
+
+		awaitUntil(() -> queue.pendingWinStreak(1L) == null);
+		assertThat(written).containsExactly(1, 2, 3);
+		assertThat(queue.retryingCount()).isZero();
+		assertThat(queue.failedCount()).isZero();
+	}
+
+	private static GameSaveQueue start(int capacity, int batchSize, int maxAttempts, long retryBackoffMs,
+									   GameResultService service, LeaderboardIndex index) {
+		GameSaveQueue queue = new GameSaveQueue(capacity, batchSize, retryBackoffMs, maxAttempts);
+		ReflectionTestUtils.setField(queue, "gameResultService", service);
+		ReflectionTestUtils.setField(queue, "leaderboardIndex", index);
+		ReflectionTestUtils.setField(queue, "scoreDistributions", new ScoreDistributions());
+		queue.start();
+		return queue;
+	}
+
+	private static GameResult result(int score, boolean won) {
+		return new GameResult(1L, score, 6, won, null, null, LocalDateTime.now());
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+			sleep(5);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
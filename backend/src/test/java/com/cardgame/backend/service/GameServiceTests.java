@@ -0,0 +1,92 @@
+package com.cardgame.backend.service;
+
+import com.cardgame.backend.model.GameState;
+import com.cardgame.backend.model.GuessRequest;
+import com.cardgame.backend.model.ProbabilityInfo;
+import com.cardgame.backend.store.InMemoryGameStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameServiceTests {
+
+	private final GameService service = new GameService(new InMemoryGameStore(30, 100));
+
+	@Test
+	void replayReproducesGameFromSeedAndMoves() {
+		GameState game = service.startNewGame("alice", 6, 0);
+		playUntilOver(game);
+
+		GameState replayed = service.replayGame(6, game.getSeed(), 0,
+				GameService.movesFromLog(game.getMoveLog()));
+
+		assertThat(replayed.getScore()).isEqualTo(game.getScore());
+		assertThat(replayed.isWon()).isEqualTo(game.isWon());
+		assertThat(replayed.getDeckValues()).isEqualTo(game.getDeckValues());
+		assertThat(replayed.getRemainingCards()).isEqualTo(game.getRemainingCards());
+		assertThat(replayed.getMoveLog()).isEqualTo(game.getMoveLog());
+	}
+
+	@Test
+	void probabilitiesAlwaysCoverRemainingDeck() {
+		GameState game = service.startNewGame("alice", 10, 0);
+		assertThat(game.getRemainingCount()).isEqualTo(42);
+
+		while (!game.isGameOver()) {
+			for (int i = 0; i < game.getNumDecks(); i++) {
+				ProbabilityInfo info = service.calculateProbability(game.getGameId(), "alice", i);
+				if (info.getTotal() > 0) {
+					assertThat(info.getHigher() + info.getLower() + info.getEqual())
+							.isEqualTo(game.getRemainingCount());
+				}
+			}
+			guessFirstActiveDeck(game);
+		}
+	}
+
+	@Test
+	void batchStopsWhenTheGameEnds() {
+		GameState game = service.startNewGame("alice", 6, 0);
+		List<GuessRequest> moves = new ArrayList<>();
+		for (int i = 0; i < 52; i++) {
+			moves.add(new GuessRequest(1 + i % 6, "h"));
+		}
+
+		List<GameState> states = service.processGuesses(game.getGameId(), "alice", moves, true);
+
+		assertThat(states.get(states.size() - 1).isGameOver()).isTrue();
+		assertThat(states).hasSizeLessThan(moves.size());
+		assertThat(states.get(states.size() - 1).getScore()).isEqualTo(game.getScore());
+	}
+
+	@Test
+	void gamesAreOnlyVisibleToTheirOwner() {
+		GameState game = service.startNewGame("alice", 8, 0);
+
+		assertThat(service.getGame(game.getGameId(), "alice")).isSameAs(game);
+		assertThat(service.getGame(game.getGameId(), "bob")).isNull();
+		assertThat(service.calculateAllProbabilities(game.getGameId(), "bob")).isNull();
+
+		service.resetGame(game.getGameId(), "alice");
+		assertThat(service.getGame(game.getGameId(), "alice")).isNull();
+	}
+
+	private void playUntilOver(GameState game) {
+		while (!game.isGameOver()) {
+			guessFirstActiveDeck(game);
+		}
+	}
+
+	private void guessFirstActiveDeck(GameState game) {
+		for (int i = 0; i < game.getNumDecks(); i++) {
+			if (game.getPileTop(i) >= 0) {
+				ProbabilityInfo info = service.calculateProbability(game.getGameId(), "alice", i);
+				service.processGuess(game.getGameId(), "alice", i + 1, info.getHigher() >= info.getLower() ? "h" : "l");
+				return;
+			}
+		}
+	}
+}
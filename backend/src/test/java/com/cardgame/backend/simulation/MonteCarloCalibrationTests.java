@@ -0,0 +1,40 @@
+package com.cardgame.backend.simulation;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Expected score, win rate and game length for every difficulty and built-in strategy, for
+ * tuning {@code GameRules} scoring. Not part of the normal build; run with
+ * {@code mvn test -Psimulation [-Dsimulation.games=1000000] [-Dsimulation.streak=0]
+ * [-Dsimulation.strategies=random,best-odds]}.
+ */
+@Tag("simulation")
+class MonteCarloCalibrationTests {
+
+	@Test
+	void printCalibrationTable() {
+		long games = Long.getLong("simulation.games", 1_000_000);
+		int winStreak = Integer.getInteger("simulation.streak", 0);
+		List<PlayerStrategy> strategies = new ArrayList<>();
+		for (String name : System.getProperty("simulation.strategies", "random,first-pile,best-odds").split(",")) {
+			strategies.add(Strategies.byName(name));
+		}
+
+		long start = System.nanoTime();
+		System.out.println(SimulationReport.header());
+		for (int numDecks = 6; numDecks <= 10; numDecks++) {
+			for (PlayerStrategy strategy : strategies) {
+				SimulationReport report = MonteCarloSimulator.simulate(numDecks, strategy, winStreak, games, 2024);
+				System.out.println(report.toRow());
+				assertThat(report.games()).isEqualTo(games);
+			}
+		}
+		System.out.printf("%d games in %.1f s%n", games * 5 * strategies.size(), (System.nanoTime() - start) / 1e9);
+	}
+}
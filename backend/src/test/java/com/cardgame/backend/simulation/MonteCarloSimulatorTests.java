@@ -0,0 +1,37 @@
+package com.cardgame.backend.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MonteCarloSimulatorTests {
+
+	@Test
+	void sameSeedGivesTheSameReport() {
+		SimulationReport first = MonteCarloSimulator.simulate(8, Strategies.RANDOM, 0, 25_000, 99);
+		SimulationReport second = MonteCarloSimulator.simulate(8, Strategies.RANDOM, 0, 25_000, 99);
+
+		assertThat(second).isEqualTo(first);
+		assertThat(first.games()).isEqualTo(25_000);
+	}
+
+	@Test
+	void countingCardsBeatsGuessingOnEveryDifficulty() {
+		for (int numDecks = 6; numDecks <= 10; numDecks++) {
+			SimulationReport random = MonteCarloSimulator.simulate(numDecks, Strategies.RANDOM, 0, 20_000, numDecks);
+			SimulationReport best = MonteCarloSimulator.simulate(numDecks, Strategies.BEST_ODDS, 0, 20_000, numDecks);
+
+			assertThat(best.meanScore()).isGreaterThan(random.meanScore());
+			assertThat(best.meanMoves()).isGreaterThan(random.meanMoves());
+			assertThat(best.winRate()).isGreaterThanOrEqualTo(random.winRate());
+			assertThat(random.p50Score()).isLessThanOrEqualTo(random.p90Score());
+			assertThat(random.p99Score()).isLessThanOrEqualTo(random.maxScore());
+		}
+	}
+
+	@Test
+	void strategiesAreFoundByName() {
+		assertThat(Strategies.byName("best-odds")).isEqualTo(Strategies.BEST_ODDS);
+		assertThat(Strategies.byName(" first_pile")).isEqualTo(Strategies.FIRST_PILE);
+	}
+}
@@ -0,0 +1,135 @@
+package com.cardgame.backend.solver;
+
+import com.cardgame.backend.engine.Cards;
+import com.cardgame.backend.engine.GameRules;
+import com.cardgame.backend.model.GameState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ExpectimaxSolverTests {
+
+	@Test
+	void matchesPlainExpectimaxOnSmallPositions() {
+		// Remaining cards and pile tops as (suit, rank); suits only keep the cards distinct
+		int[][] remaining = {{0, 2}, {1, 2}, {0, 7}, {0, 9}, {0, 13}};
+		int[][] tops = {{2, 5}, {3, 11}, {2, 1}};
+
+		for (int winStreak : new int[]{0, 4}) {
+			GameState game = position(8, remaining, tops);
+			ExpectimaxSolver solver = new ExpectimaxSolver(8, winStreak, 10, 2, 1 << 12);
+
+			List<Integer> piles = new ArrayList<>();
+			for (int[] top : tops) {
+				piles.add(top[1] - 1);
+			}
+			double multiplier = GameRules.getDeckMultiplier(8) * GameRules.getStreakMultiplier(winStreak);
+			double winScore = Math.round(52 * multiplier) + GameRules.getVictoryBonus(8, winStreak);
+			double expected = reference(counts(remaining), piles, remaining.length, multiplier, winScore);
+
+			ExpectimaxSolver.Hint hint = solver.bestMove(game);
+			assertThat(hint.exact()).isTrue();
+			assertThat(hint.expectedScore()).isCloseTo(expected, within(1e-9));
+			// Asked again, the answer comes from the shared cache
+			assertThat(solver.bestMove(game).expectedScore()).isCloseTo(expected, within(1e-9));
+		}
+	}
+
+	@Test
+	void mirroredPositionsShareAKey() {
+		int[] counts = {4, 0, 3, 1, 0, 0, 2, 0, 0, 4, 1, 0, 2};
+		int[] piles = {0, 1, 0, 0, 0, 2, 0, 0, 0, 0, 0, 1, 0};
+		int[] mirroredCounts = new int[13];
+		int[] mirroredPiles = new int[13];
+		for (int i = 0; i < 13; i++) {
+			mirroredCounts[12 - i] = counts[i];
+			mirroredPiles[12 - i] = piles[i];
+		}
+
+		assertThat(ExpectimaxSolver.canonicalKey(mirroredCounts, mirroredPiles))
+				.isEqualTo(ExpectimaxSolver.canonicalKey(counts, piles));
+		piles[1]--;
+		piles[2]++;
+		assertThat(ExpectimaxSolver.canonicalKey(counts, piles))
+				.isNotEqualTo(ExpectimaxSolver.canonicalKey(mirroredCounts, mirroredPiles));
+	}
+
+	@Test
+	void hintsEveryStageOfARealGame() {
+		ExpectimaxSolver solver = new ExpectimaxSolver(10, 0, 10, 2, 1 << 16);
+		GameState game = GameRules.newGame(10, 12345);
+		while (!game.isGameOver()) {
+			ExpectimaxSolver.Hint hint = solver.bestMove(game);
+			assertThat(game.getPileTop(hint.deckNumber() - 1)).isNotEqualTo(Cards.NONE);
+			assertThat(hint.probabilityCorrect()).isBetween(0.0, 1.0);
+			GameRules.applyGuess(game, hint.deckNumber(), hint.high() ? "h" : "l", 0);
+		}
+		assertThat(solver.bestMove(game)).isNull();
+	}
+
+	private static GameState position(int numDecks, int[][] remaining, int[][] tops) {
+		GameState game = new GameState(numDecks, 1);
+		long keep = 0;
+		for (int[] card : remaining) {
+			keep |= 1L << Cards.code(card[0], card[1]);
+		}
+		for (int card = 0; card < Cards.DECK_SIZE; card++) {
+			if (!Cards.contains(keep, card)) {
+				game.removeCard(card);
+			}
+		}
+		for (int pile = 0; pile < tops.length; pile++) {
+			game.setPileTop(pile, Cards.code(tops[pile][0], tops[pile][1]));
+		}
+		return game;
+	}
+
+	private static int[] counts(int[][] cards) {
+		int[] counts = new int[13];
+		for (int[] card : cards) {
+			counts[card[1] - 1]++;
+		}
+		return counts;
+	}
+
+	// Every pile and direction, every card, no caching or symmetry
+	private static double reference(int[] counts, List<Integer> piles, int remaining, double multiplier,
+									double winScore) {
+		double best = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < piles.size(); i++) {
+			int t = piles.get(i);
+			for (boolean high : new boolean[]{true, false}) {
+				double sum = 0;
+				for (int r = 0; r < 13; r++) {
+					if (counts[r] == 0) {
+						continue;
+					}
+					int count = counts[r];
+					counts[r]--;
+					int left = remaining - 1;
+					double outcome;
+					List<Integer> next = new ArrayList<>(piles);
+					if (left == 0) {
+						outcome = winScore;
+					} else if (r == t || (high ? r > t : r < t)) {
+						next.set(i, r);
+						outcome = reference(counts, next, left, multiplier, winScore);
+					} else if (piles.size() == 1) {
+						outcome = Math.round((52 - left) * multiplier);
+					} else {
+						next.remove(i);
+						outcome = reference(counts, next, left, multiplier, winScore);
+					}
+					counts[r]++;
+					sum += count * outcome;
+				}
+				best = Math.max(best, sum / remaining);
+			}
+		}
+		return best;
+	}
+}
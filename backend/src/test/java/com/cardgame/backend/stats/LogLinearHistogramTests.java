@@ -0,0 +1,63 @@
+package com.cardgame.backend.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogLinearHistogramTests {
+
+	@Test
+	void bucketsTileTheIntRange() {
+		int expectedLow = 0;
+		for (int i = 0; i < LogLinearHistogram.BUCKET_COUNT; i++) {
+			assertThat(LogLinearHistogram.lowestValue(i)).isEqualTo(expectedLow);
+			assertThat(LogLinearHistogram.indexOf(LogLinearHistogram.lowestValue(i))).isEqualTo(i);
+			assertThat(LogLinearHistogram.indexOf(LogLinearHistogram.highestValue(i))).isEqualTo(i);
+			expectedLow = LogLinearHistogram.highestValue(i) + 1;
+		}
+		assertThat(LogLinearHistogram.highestValue(LogLinearHistogram.BUCKET_COUNT - 1)).isEqualTo(Integer.MAX_VALUE);
+	}
+
+	@Test
+	void percentilesStayWithinBucketError() {
+		LogLinearHistogram histogram = new LogLinearHistogram();
+		Random random = new Random(7);
+		int[] values = new int[20000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextInt(5000);
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+
+		for (double percentile : new double[]{1, 25, 50, 90, 99, 100}) {
+			int exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+			assertThat(histogram.valueAtPercentile(percentile)).isBetween(exact, (int) (exact * 1.04) + 1);
+		}
+		// Exact below 64
+		long below = Arrays.stream(values).filter(v -> v < 40).count();
+		assertThat(histogram.countBelow(40)).isEqualTo(below);
+	}
+
+	@Test
+	void encodedHistogramMergesBackToTheSameCounts() {
+		LogLinearHistogram first = new LogLinearHistogram();
+		LogLinearHistogram second = new LogLinearHistogram();
+		for (int score = 0; score < 3000; score += 7) {
+			first.record(score);
+			second.record(score * 3);
+		}
+
+		LogLinearHistogram merged = LogLinearHistogram.decode(first.encode());
+		merged.add(second);
+
+		LogLinearHistogram expected = new LogLinearHistogram();
+		expected.add(first);
+		expected.add(second);
+		assertThat(merged.count()).isEqualTo(first.count() + second.count());
+		assertThat(merged.buckets()).isEqualTo(expected.buckets());
+		assertThat(LogLinearHistogram.decode(new byte[0]).count()).isZero();
+	}
+}
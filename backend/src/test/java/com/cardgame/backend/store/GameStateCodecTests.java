@@ -0,0 +1,46 @@
+package com.cardgame.backend.store;
+
+import com.cardgame.backend.model.GameState;
+import com.cardgame.backend.service.GameService;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameStateCodecTests {
+
+	private final InMemoryGameStore store = new InMemoryGameStore(30, 100);
+	private final GameService service = new GameService(store);
+
+	@Test
+	void roundTripPreservesGameInProgress() {
+		GameState game = service.startNewGame("alice", 7, 3);
+		service.processGuess(game.getGameId(), "alice", 1, "h");
+		service.processGuess(game.getGameId(), "alice", 2, "l");
+
+		byte[] encoded = GameStateCodec.encode(game);
+		GameState decoded = GameStateCodec.decode(game.getGameId(), encoded);
+
+		assertThat(encoded.length).isLessThan(64);
+		assertThat(decoded.getOwner()).isEqualTo("alice");
+		assertThat(decoded.getWinStreak()).isEqualTo(3);
+		assertThat(decoded.getSeed()).isEqualTo(game.getSeed());
+		assertThat(decoded.getScore()).isEqualTo(game.getScore());
+		assertThat(decoded.isGameOver()).isEqualTo(game.isGameOver());
+		assertThat(decoded.getDeckValues()).isEqualTo(game.getDeckValues());
+		assertThat(decoded.getRemainingCards()).isEqualTo(game.getRemainingCards());
+		assertThat(decoded.getMoveLog()).isEqualTo(game.getMoveLog());
+		for (int rank = 1; rank <= 13; rank++) {
+			assertThat(decoded.countOfRank(rank)).isEqualTo(game.countOfRank(rank));
+		}
+	}
+
+	@Test
+	void decodedGameDrawsTheSameCardsAsTheOriginal() {
+		GameState game = service.startNewGame("alice", 10, 0);
+		GameState decoded = GameStateCodec.decode(game.getGameId(), GameStateCodec.encode(game));
+
+		while (game.getRemainingCount() > 0) {
+			assertThat(decoded.drawNextCard()).isEqualTo(game.drawNextCard());
+		}
+	}
+}
@@ -7,6 +7,8 @@ import '../styles/Stats.css';
 const Stats = () => {
   const [stats, setStats] = useState(null);
   const [history, setHistory] = useState([]);
+  const [historyCursor, setHistoryCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const { user, isAuthenticated, isGuest } = useAuth();
@@ -29,7 +31,8 @@ const Stats = () => {
         statsService.getMyHistory()
       ]);
       setStats(statsData);
-      setHistory(historyData);
+      setHistory(historyData.items);
+      setHistoryCursor(historyData.nextCursor);
     } catch (err) {
       setError('Failed to load stats. Please try again.');
       console.error('Error loading stats:', err);
@@ -38,6 +41,19 @@ const Stats = () => {
     }
   };
 
+  const loadMoreHistory = async () => {
+    setLoadingMore(true);
+    try {
+      const page = await statsService.getMyHistory(historyCursor);
+      setHistory((previous) => [...previous, ...page.items]);
+      setHistoryCursor(page.nextCursor);
+    } catch (err) {
+      console.error('Error loading more history:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const formatDate = (dateString) => {
     const date = new Date(dateString);
     return date.toLocaleDateString() + ' ' + date.toLocaleTimeString();
@@ -164,6 +180,11 @@ const Stats = () => {
                 ))}
               </tbody>
             </table>
+            {historyCursor && (
+              <button onClick={loadMoreHistory} className="nav-button" disabled={loadingMore}>
+                {loadingMore ? 'Loading...' : 'Load more'}
+              </button>
+            )}
           </div>
         )}
       </div>
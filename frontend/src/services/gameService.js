@@ -9,7 +9,19 @@ const API_BASE_URL = process.env.REACT_APP_API_URL
 
 console.log('🔗 Game API URL:', API_BASE_URL);
 
+// ✅ Games are keyed by id on the server; remember the current one across reloads
+const GAME_ID_KEY = 'currentGameId';
+
+const getGameHeaders = () => {
+  const gameId = localStorage.getItem(GAME_ID_KEY);
+  return gameId
+    ? { ...authService.getAuthHeader(), 'X-Game-Id': gameId }
+    : authService.getAuthHeader();
+};
+
 const gameService = {
+  getGameHeaders,
+
   // Start a new game
   startGame: async (numDecks) => {
     try {
@@ -19,6 +31,9 @@ const gameService = {
         { numDecks },
         { headers: authService.getAuthHeader() }
       );
+      if (response.data?.gameId) {
+        localStorage.setItem(GAME_ID_KEY, response.data.gameId);
+      }
       return response.data;
     } catch (error) {
       console.error('❌ Error starting game:', error);
@@ -37,7 +52,7 @@ const gameService = {
           guess,
           winStreak // ✅ Send win streak to backend
         },
-        { headers: authService.getAuthHeader() }
+        { headers: getGameHeaders() }
       );
       return response.data;
     } catch (error) {
@@ -50,7 +65,7 @@ const gameService = {
   getGameState: async () => {
     try {
       const response = await axios.get(`${API_BASE_URL}/state`, {
-        headers: authService.getAuthHeader()
+        headers: getGameHeaders()
       });
       return response.data;
     } catch (error) {
@@ -63,7 +78,7 @@ const gameService = {
   getProbabilities: async () => {
     try {
       const response = await axios.get(`${API_BASE_URL}/probabilities`, {
-        headers: authService.getAuthHeader()
+        headers: getGameHeaders()
       });
       return response.data;
     } catch (error) {
@@ -78,14 +93,39 @@ const gameService = {
       await axios.post(
         `${API_BASE_URL}/reset`,
         {},
-        { headers: authService.getAuthHeader() }
+        { headers: getGameHeaders() }
       );
+      localStorage.removeItem(GAME_ID_KEY);
     } catch (error) {
       console.error('❌ Error resetting game:', error);
       throw error;
     }
   },
 
+  // ✅ NEW: Live game channel. Sends moves and receives state / probabilities / gameOver
+  // pushes, replacing the guess + probabilities + state round trips.
+  openGameSocket: (onMessage) => {
+    const gameId = localStorage.getItem(GAME_ID_KEY);
+    const user = authService.getCurrentUser();
+    if (!gameId || !user?.token) {
+      return null;
+    }
+
+    const wsBase = API_BASE_URL.replace(/^http/, 'ws');
+    const socket = new WebSocket(
+      `${wsBase}/ws?token=${encodeURIComponent(user.token)}&gameId=${encodeURIComponent(gameId)}`
+    );
+    socket.onmessage = (event) => onMessage(JSON.parse(event.data));
+    socket.onerror = (error) => console.error('❌ Game socket error:', error);
+
+    return {
+      guess: (deckNumber, guess) =>
+        socket.send(JSON.stringify({ type: 'guess', deckNumber, guess })),
+      refresh: () => socket.send(JSON.stringify({ type: 'state' })),
+      close: () => socket.close()
+    };
+  },
+
   // Health check
   healthCheck: async () => {
     try {
@@ -1,5 +1,6 @@
 import axios from 'axios';
 import authService from './authService';
+import gameService from './gameService';
 
 axios.defaults.withCredentials = true;
 
@@ -23,10 +24,12 @@ const statsService = {
   },
 
   // Get my game history
-  getMyHistory: async () => {
+  // Returns one page: { items, nextCursor }. Pass nextCursor back for the next page.
+  getMyHistory: async (cursor = null) => {
     try {
       const response = await axios.get(`${API_BASE_URL}/api/stats/history`, {
-        headers: authService.getAuthHeader()
+        headers: authService.getAuthHeader(),
+        params: cursor ? { cursor } : {}
       });
       return response.data;
     } catch (error) {
@@ -78,7 +81,7 @@ const statsService = {
       const response = await axios.post(
         `${API_BASE_URL}/api/game/save`,
         { score, numDecks, won },
-        { headers: authService.getAuthHeader() }
+        { headers: gameService.getGameHeaders() }
       );
       return response.data;
     } catch (error) {